@@ -0,0 +1,100 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.*;
+
+// Serves the lesson catalog as JSON from the precomputed snapshot in
+// OnlineLanguagePlatform.LessonCatalog. Clients revalidate with
+// If-None-Match; an unchanged catalog costs a 304 and at most one
+// catalog_version lookup per second. Plain and gzip bodies have
+// different ETags.
+@WebServlet(urlPatterns = "/lessons")
+public class LessonCatalogServlet extends HttpServlet {
+
+    protected void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+
+        OnlineLanguagePlatform.LessonCatalog.Snapshot snapshot;
+        try {
+            snapshot = OnlineLanguagePlatform.LessonCatalog.snapshot();
+        } catch (Exception e) {
+            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Error loading lessons");
+            return;
+        }
+
+        boolean gzip = acceptsGzip(request.getHeader("Accept-Encoding"));
+        String etag = gzip ? snapshot.getGzipETag() : snapshot.getETag();
+
+        response.setHeader("ETag", etag);
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("Vary", "Accept-Encoding");
+
+        if (matches(request.getHeader("If-None-Match"), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = snapshot.getJson();
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+            body = snapshot.getGzip();
+        }
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setContentLength(body.length);
+
+        OutputStream out = response.getOutputStream();
+        out.write(body);
+        out.flush();
+    }
+
+    // Honours q-values: "gzip;q=0" refuses gzip, "*;q=0.5" allows it.
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double gzipQ = -1;
+        double wildcardQ = -1;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1.0;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=") || param.startsWith("Q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQ = Math.max(gzipQ, q);
+            } else if (coding.equals("*")) {
+                wildcardQ = q;
+            }
+        }
+        return gzipQ >= 0 ? gzipQ > 0 : wildcardQ > 0;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
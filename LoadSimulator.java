@@ -0,0 +1,506 @@
+// LoadSimulator.java
+//
+// Headless load generator: synthetic admins, instructors and learners run
+// realistic sessions against a local language_platform database through
+// the real service layer (AuthService, LessonService, ProgressService).
+//
+// Usage:
+//   java [-Dcodelingo.threads=virtual] [-Dcodelingo.db.poolSize=N] LoadSimulator [options]
+//
+//   --admins=N          simulated admins            (default 2)
+//   --instructors=N     simulated instructors       (default 10)
+//   --learners=N        simulated learners          (default 200)
+//   --steps=a,b,c       run one stage per learner population instead of --learners
+//   --duration=SEC      length of each stage        (default 60)
+//   --ramp=SEC          spread session starts over  (default 10)
+//   --report=SEC        reporting interval          (default 5)
+//   --autosave=MS       slider autosave period      (default 5000, as in the GUI)
+//   --think=MS          think time between actions  (default 1000)
+//   --create-lessons    let instructors create lessons (writes to lessons)
+//   --server-stats      also report MySQL Threads_connected
+//   --seed              create the synthetic accounts first
+//
+// Synthetic accounts are loadtest-<role>-<n>@example.com / loadtest.
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LoadSimulator {
+
+    private static final String PASSWORD = "loadtest";
+    // page size of the admin dashboard's user search
+    private static final int USER_SEARCH_LIMIT = 200;
+
+    enum Op {
+        LOGIN, LIST_LESSONS, OPEN_DASHBOARD, SAVE_PROGRESS, INDEX_USERS, SEARCH_USERS,
+        CREATE_LESSON
+    }
+
+    // ---------- options ----------
+    private int admins = 2;
+    private int instructors = 10;
+    private int learners = 200;
+    private int[] steps;
+    private int durationSec = 60;
+    private int rampSec = 10;
+    private int reportSec = 5;
+    private int autosaveMillis = 5000;
+    private int thinkMillis = 1000;
+    private boolean createLessons;
+    private boolean serverStats;
+    private boolean seed;
+
+    // ---------- metrics ----------
+    private final Map<Op, LatencyHistogram> window = new EnumMap<Op, LatencyHistogram>(Op.class);
+    private final Map<Op, LatencyHistogram> stage = new EnumMap<Op, LatencyHistogram>(Op.class);
+    private final Map<Op, LongAdder> windowErrors = new EnumMap<Op, LongAdder>(Op.class);
+    private final Map<Op, LongAdder> stageErrors = new EnumMap<Op, LongAdder>(Op.class);
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private volatile int maxDbInUse;
+    private volatile int maxDbWaiting;
+
+    public LoadSimulator() {
+        for (Op op : Op.values()) {
+            window.put(op, new LatencyHistogram());
+            stage.put(op, new LatencyHistogram());
+            windowErrors.put(op, new LongAdder());
+            stageErrors.put(op, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadSimulator sim = new LoadSimulator();
+        sim.parse(args);
+        sim.run();
+    }
+
+    private void parse(String[] args) {
+        for (String a : args) {
+            String key = a.contains("=") ? a.substring(0, a.indexOf('=')) : a;
+            String value = a.contains("=") ? a.substring(a.indexOf('=') + 1) : "";
+            switch (key) {
+                case "--admins": admins = Integer.parseInt(value); break;
+                case "--instructors": instructors = Integer.parseInt(value); break;
+                case "--learners": learners = Integer.parseInt(value); break;
+                case "--steps":
+                    String[] parts = value.split(",");
+                    steps = new int[parts.length];
+                    for (int i = 0; i < parts.length; i++) {
+                        steps[i] = Integer.parseInt(parts[i].trim());
+                    }
+                    break;
+                case "--duration": durationSec = Integer.parseInt(value); break;
+                case "--ramp": rampSec = Integer.parseInt(value); break;
+                case "--report": reportSec = Integer.parseInt(value); break;
+                case "--autosave": autosaveMillis = Integer.parseInt(value); break;
+                case "--think": thinkMillis = Integer.parseInt(value); break;
+                case "--create-lessons": createLessons = true; break;
+                case "--server-stats": serverStats = true; break;
+                case "--seed": seed = true; break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + a);
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        int[] populations = steps != null ? steps : new int[]{learners};
+        int maxLearners = 0;
+        for (int p : populations) {
+            maxLearners = Math.max(maxLearners, p);
+        }
+        if (seed) {
+            seedAccounts(maxLearners);
+        }
+
+        System.out.printf(Locale.ROOT,
+                "mode=%s, bulkhead permits=%d, admins=%d, instructors=%d%n",
+                OnlineLanguagePlatform.Execution.getMode(),
+                OnlineLanguagePlatform.DBBulkhead.getPermits(), admins, instructors);
+
+        List<String> summaries = new ArrayList<String>();
+        double previousThroughput = 0;
+        int kneeAt = -1;
+        for (int population : populations) {
+            double throughput = runStage(population, summaries);
+            if (kneeAt < 0 && previousThroughput > 0
+                    && throughput < previousThroughput * 1.10) {
+                kneeAt = population;
+            }
+            previousThroughput = throughput;
+        }
+
+        System.out.println();
+        System.out.println("learners  ops/s      p50 ms  p95 ms  p99 ms  error %  max db in use  max db waiting");
+        for (String line : summaries) {
+            System.out.println(line);
+        }
+        if (kneeAt > 0) {
+            System.out.println("Throughput stopped scaling (<10% gain) at " + kneeAt + " learners.");
+        }
+    }
+
+    // One population level: start sessions, report every interval, summarize.
+    private double runStage(int learnerCount, List<String> summaries) throws Exception {
+        for (Op op : Op.values()) {
+            stage.get(op).reset();
+            stageErrors.get(op).reset();
+        }
+        maxDbInUse = 0;
+        maxDbWaiting = 0;
+
+        int total = admins + instructors + learnerCount;
+        long startNanos = System.nanoTime();
+        long deadline = startNanos + TimeUnit.SECONDS.toNanos(durationSec);
+        CountDownLatch finished = new CountDownLatch(total);
+
+        System.out.printf(Locale.ROOT, "%n=== stage: %d learners, %d s ===%n", learnerCount, durationSec);
+        System.out.println("t(s)  active  ops/s    p50 ms  p95 ms  p99 ms  errors  db in use  db waiting"
+                + (serverStats ? "  server conns" : ""));
+
+        int index = 0;
+        for (int i = 0; i < admins; i++, index++) {
+            startSession(OnlineLanguagePlatform.Role.ADMIN, i, index, total, deadline, finished);
+        }
+        for (int i = 0; i < instructors; i++, index++) {
+            startSession(OnlineLanguagePlatform.Role.INSTRUCTOR, i, index, total, deadline, finished);
+        }
+        for (int i = 0; i < learnerCount; i++, index++) {
+            startSession(OnlineLanguagePlatform.Role.LEARNER, i, index, total, deadline, finished);
+        }
+
+        long nextReport = startNanos + TimeUnit.SECONDS.toNanos(reportSec);
+        long lastReport = startNanos;
+        while (!finished.await(200, TimeUnit.MILLISECONDS)) {
+            maxDbInUse = Math.max(maxDbInUse, OnlineLanguagePlatform.DBBulkhead.getInUse());
+            maxDbWaiting = Math.max(maxDbWaiting, OnlineLanguagePlatform.DBBulkhead.getWaiting());
+            long now = System.nanoTime();
+            if (now >= nextReport) {
+                report(now - startNanos, now - lastReport);
+                lastReport = now;
+                nextReport += TimeUnit.SECONDS.toNanos(reportSec);
+            }
+        }
+        long elapsed = System.nanoTime() - startNanos;
+
+        LatencyHistogram all = new LatencyHistogram();
+        long errors = 0;
+        for (Op op : Op.values()) {
+            all.add(stage.get(op));
+            errors += stageErrors.get(op).sum();
+        }
+        long ops = all.count();
+        double throughput = ops / (elapsed / 1e9);
+        double errorPercent = ops + errors == 0 ? 0 : 100.0 * errors / (ops + errors);
+
+        System.out.println("per operation:");
+        for (Op op : Op.values()) {
+            LatencyHistogram h = stage.get(op);
+            if (h.count() > 0 || stageErrors.get(op).sum() > 0) {
+                System.out.printf(Locale.ROOT, "  %-14s %8d ok %6d err  p50 %7.1f  p95 %7.1f  p99 %7.1f ms%n",
+                        op, h.count(), stageErrors.get(op).sum(),
+                        h.percentileMillis(0.50), h.percentileMillis(0.95), h.percentileMillis(0.99));
+            }
+        }
+
+        summaries.add(String.format(Locale.ROOT, "%8d  %9.1f  %6.1f  %6.1f  %6.1f  %7.2f  %13d  %14d",
+                learnerCount, throughput,
+                all.percentileMillis(0.50), all.percentileMillis(0.95), all.percentileMillis(0.99),
+                errorPercent, maxDbInUse, maxDbWaiting));
+        return throughput;
+    }
+
+    private void startSession(OnlineLanguagePlatform.Role role, int n, int index, int total,
+                              long deadline, CountDownLatch finished) {
+        long delayMillis = total <= 1 ? 0 : (long) rampSec * 1000 * index / total;
+        Runnable session = () -> {
+            activeSessions.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+                String email = accountEmail(role, n);
+                while (System.nanoTime() < deadline) {
+                    switch (role) {
+                        case ADMIN: adminSession(email, deadline); break;
+                        case INSTRUCTOR: instructorSession(email, deadline); break;
+                        default: learnerSession(email, deadline); break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                activeSessions.decrementAndGet();
+                finished.countDown();
+            }
+        };
+        OnlineLanguagePlatform.Execution.newThread("sim-" + role + "-" + n, session).start();
+    }
+
+    // ---------- sessions ----------
+
+    // login, open the dashboard (first page), then move the slider while autosave ticks
+    private void learnerSession(String email, long deadline) throws InterruptedException {
+        OnlineLanguagePlatform.AuthService auth = new OnlineLanguagePlatform.AuthService();
+        OnlineLanguagePlatform.ProgressService progress = new OnlineLanguagePlatform.ProgressService();
+
+        OnlineLanguagePlatform.User user = timed(Op.LOGIN, () -> auth.login(email, PASSWORD));
+        if (user == null) {
+            pause(thinkMillis, deadline);
+            return;
+        }
+        pause(thinkMillis, deadline);
+        OnlineLanguagePlatform.DashboardPage page = timed(Op.OPEN_DASHBOARD,
+                () -> progress.getDashboardPage(user.getId(), 0, 50));
+        if (page == null || page.getRows().isEmpty()) {
+            pause(thinkMillis, deadline);
+            return;
+        }
+        List<OnlineLanguagePlatform.LearnerLessonRow> list = page.getRows();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int lessonId = list.get(rnd.nextInt(list.size())).getLessonId();
+        pause(thinkMillis, deadline);
+
+        int percent = rnd.nextInt(50);
+        int ticks = 6 + rnd.nextInt(12);
+        for (int t = 0; t < ticks && System.nanoTime() < deadline; t++) {
+            percent = Math.min(100, percent + rnd.nextInt(10));
+            int p = percent;
+            timed(Op.SAVE_PROGRESS, () -> {
+                progress.updateProgress(user.getId(), lessonId, p);
+                return Boolean.TRUE;
+            });
+            pause(autosaveMillis, deadline);
+        }
+    }
+
+    private void instructorSession(String email, long deadline) throws InterruptedException {
+        OnlineLanguagePlatform.AuthService auth = new OnlineLanguagePlatform.AuthService();
+        OnlineLanguagePlatform.LessonService lessons = new OnlineLanguagePlatform.LessonService();
+
+        OnlineLanguagePlatform.User user = timed(Op.LOGIN, () -> auth.login(email, PASSWORD));
+        pause(thinkMillis, deadline);
+        if (user != null && createLessons && ThreadLocalRandom.current().nextInt(10) == 0) {
+            timed(Op.CREATE_LESSON, () -> {
+                lessons.createLesson("Load test lesson " + System.nanoTime(),
+                        "Generated by LoadSimulator", user.getId());
+                return Boolean.TRUE;
+            });
+            pause(thinkMillis, deadline);
+        }
+        for (int i = 0; i < 3 && System.nanoTime() < deadline; i++) {
+            timed(Op.LIST_LESSONS, lessons::getAllLessons);
+            pause(thinkMillis * 5L, deadline);
+        }
+    }
+
+    // as the admin dashboard: build the user search index if this process
+    // has none (or on "Refresh Users", 1 session in 10), then type a search.
+    // All simulated admins share one index, where real admins each build
+    // their own on opening the dashboard.
+    private void adminSession(String email, long deadline) throws InterruptedException {
+        OnlineLanguagePlatform.AuthService auth = new OnlineLanguagePlatform.AuthService();
+        OnlineLanguagePlatform.LessonService lessons = new OnlineLanguagePlatform.LessonService();
+        OnlineLanguagePlatform.UserDAO users = new OnlineLanguagePlatform.UserDAO();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+
+        timed(Op.LOGIN, () -> auth.login(email, PASSWORD));
+        pause(thinkMillis, deadline);
+        if (!OnlineLanguagePlatform.UserSearchIndex.isLoaded() || rnd.nextInt(10) == 0) {
+            timed(Op.INDEX_USERS, () -> {
+                OnlineLanguagePlatform.UserSearchIndex.rebuild(users);
+                return Boolean.TRUE;
+            });
+        }
+        timed(Op.SEARCH_USERS, () -> OnlineLanguagePlatform.UserSearchIndex.search(
+                "", null, USER_SEARCH_LIMIT));
+        pause(thinkMillis, deadline);
+        // one search per keystroke, as the search field's document listener does
+        String target = accountEmail(OnlineLanguagePlatform.Role.LEARNER,
+                rnd.nextInt(Math.max(1, learners)));
+        for (int i = 1; i <= Math.min(target.length(), 12) && System.nanoTime() < deadline; i++) {
+            String prefix = target.substring(0, i);
+            timed(Op.SEARCH_USERS, () -> OnlineLanguagePlatform.UserSearchIndex.search(
+                    prefix, null, USER_SEARCH_LIMIT));
+            pause(thinkMillis / 5, deadline);
+        }
+        pause(thinkMillis, deadline);
+        timed(Op.LIST_LESSONS, lessons::getAllLessons);
+        pause(thinkMillis * 10L, deadline);
+    }
+
+    // ---------- measurement ----------
+
+    private <T> T timed(Op op, Callable<T> action) {
+        long t0 = System.nanoTime();
+        try {
+            T result = action.call();
+            long nanos = System.nanoTime() - t0;
+            window.get(op).record(nanos);
+            stage.get(op).record(nanos);
+            return result;
+        } catch (Exception e) {
+            windowErrors.get(op).increment();
+            stageErrors.get(op).increment();
+            return null;
+        }
+    }
+
+    private void report(long sinceStartNanos, long windowNanos) {
+        LatencyHistogram all = new LatencyHistogram();
+        long errors = 0;
+        for (Op op : Op.values()) {
+            all.add(window.get(op));
+            window.get(op).reset();
+            errors += windowErrors.get(op).sumThenReset();
+        }
+        String server = serverStats ? String.format(Locale.ROOT, "  %12s", serverConnections()) : "";
+        System.out.printf(Locale.ROOT, "%4d  %6d  %7.1f  %6.1f  %6.1f  %6.1f  %6d  %9d  %10d%s%n",
+                TimeUnit.NANOSECONDS.toSeconds(sinceStartNanos),
+                activeSessions.get(),
+                all.count() / (windowNanos / 1e9),
+                all.percentileMillis(0.50), all.percentileMillis(0.95), all.percentileMillis(0.99),
+                errors,
+                OnlineLanguagePlatform.DBBulkhead.getInUse(),
+                OnlineLanguagePlatform.DBBulkhead.getWaiting(),
+                server);
+    }
+
+    private static String serverConnections() {
+        try (Connection conn = OnlineLanguagePlatform.DBConnectionManager.getConnection();
+             Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SHOW STATUS LIKE 'Threads_connected'")) {
+            return rs.next() ? rs.getString(2) : "?";
+        } catch (SQLException e) {
+            return "n/a";
+        }
+    }
+
+    private static void pause(long millis, long deadline) throws InterruptedException {
+        long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (left > 0) {
+            // +/-25% jitter so sessions don't move in lockstep
+            long jitter = millis / 4;
+            long sleep = millis + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+            Thread.sleep(Math.min(left, Math.max(0, sleep)));
+        }
+    }
+
+    // ---------- accounts ----------
+
+    private static String accountEmail(OnlineLanguagePlatform.Role role, int n) {
+        return "loadtest-" + role.name().toLowerCase(Locale.ROOT) + "-" + n + "@example.com";
+    }
+
+    private void seedAccounts(int learnerCount) {
+        OnlineLanguagePlatform.UserDAO dao = new OnlineLanguagePlatform.UserDAO();
+        int created = 0;
+        for (int i = 0; i < admins; i++) {
+            created += seed(dao, new OnlineLanguagePlatform.Admin(0, "Load Admin " + i,
+                    accountEmail(OnlineLanguagePlatform.Role.ADMIN, i), PASSWORD));
+        }
+        for (int i = 0; i < instructors; i++) {
+            created += seed(dao, new OnlineLanguagePlatform.Instructor(0, "Load Instructor " + i,
+                    accountEmail(OnlineLanguagePlatform.Role.INSTRUCTOR, i), PASSWORD));
+        }
+        for (int i = 0; i < learnerCount; i++) {
+            created += seed(dao, new OnlineLanguagePlatform.Learner(0, "Load Learner " + i,
+                    accountEmail(OnlineLanguagePlatform.Role.LEARNER, i), PASSWORD));
+        }
+        System.out.println("Seeded " + created + " synthetic accounts.");
+    }
+
+    private static int seed(OnlineLanguagePlatform.UserDAO dao, OnlineLanguagePlatform.User user) {
+        try {
+            dao.save(user);
+            return 1;
+        } catch (SQLIntegrityConstraintViolationException e) {
+            return 0; // already there
+        } catch (SQLException e) {
+            System.err.println("Seed failed for " + user.getEmail() + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    interface Callable<T> {
+        T call() throws Exception;
+    }
+
+    // Lock-free log-linear histogram: 8 sub-buckets per power of two of
+    // microseconds (~9% resolution), up to about 35 minutes.
+    static class LatencyHistogram {
+        private static final int SUB_BUCKETS = 8;
+        private static final int BUCKETS = 32 * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            counts.incrementAndGet(index(Math.max(1, nanos / 1000)));
+        }
+
+        void add(LatencyHistogram other) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = other.counts.get(i);
+                if (c != 0) {
+                    counts.addAndGet(i, c);
+                }
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+        }
+
+        long count() {
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                total += counts.get(i);
+            }
+            return total;
+        }
+
+        double percentileMillis(double p) {
+            long total = count();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return upperBoundMicros(i) / 1000.0;
+                }
+            }
+            return upperBoundMicros(BUCKETS - 1) / 1000.0;
+        }
+
+        private static int index(long micros) {
+            int power = 63 - Long.numberOfLeadingZeros(micros);
+            if (power < 3) {
+                return (int) micros; // 1..7 us map one-to-one
+            }
+            int sub = (int) ((micros >>> (power - 3)) & (SUB_BUCKETS - 1));
+            return Math.min(BUCKETS - 1, power * SUB_BUCKETS + sub);
+        }
+
+        private static long upperBoundMicros(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int power = index / SUB_BUCKETS;
+            int sub = index % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (power - 3)) - 1;
+        }
+    }
+}
@@ -1,11 +1,34 @@
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.sql.*;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.servlet.AsyncContext;
 import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.*;
 
+// asyncSupported lets VIRTUAL mode hand the request to a virtual thread
+@WebServlet(urlPatterns = "/LoginServlet", asyncSupported = true)
 public class LoginServlet extends HttpServlet {
 
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    private static final int SC_SERVICE_UNAVAILABLE = 503;
+
+    // Shared by every servlet instance – checked before any JDBC work
+    private static final LoginRateLimiter rateLimiter = new LoginRateLimiter();
+
+    @Override
+    public void init() throws ServletException {
+        // expose allowed/rejected counters to other components (admin pages)
+        getServletContext().setAttribute("loginRateLimiter", rateLimiter);
+    }
+
     protected void doPost(HttpServletRequest request, HttpServletResponse response)
             throws ServletException, IOException {
 
@@ -13,37 +36,249 @@ public class LoginServlet extends HttpServlet {
         String password = request.getParameter("password");
 
         response.setContentType("text/html");
+
+        long retryAfterNanos = rateLimiter.tryAcquire(request.getRemoteAddr(), email);
+        if (retryAfterNanos > 0) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos));
+            response.setStatus(SC_TOO_MANY_REQUESTS);
+            response.setHeader("Retry-After", String.valueOf(seconds));
+            response.getWriter().println("<h3>Too Many Login Attempts</h3>");
+            return;
+        }
+
+        // Virtual-thread mode: free the container thread while JDBC blocks
+        if (OnlineLanguagePlatform.Execution.getMode()
+                == OnlineLanguagePlatform.Execution.Mode.VIRTUAL
+                && request.isAsyncSupported()) {
+            AsyncContext async = request.startAsync();
+            OnlineLanguagePlatform.Execution.executor().execute(() -> {
+                try {
+                    authenticate(email, password, response);
+                } catch (IOException e) {
+                    log("Login response failed", e);
+                } finally {
+                    async.complete();
+                }
+            });
+            return;
+        }
+
+        authenticate(email, password, response);
+    }
+
+    private void authenticate(String email, String password,
+                              HttpServletResponse response) throws IOException {
+
         PrintWriter out = response.getWriter();
 
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
 
-            Connection con = DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/language_platform",
-                "root",
-                "password"
-            );
+            // shares the DB bulkhead with the rest of the platform
+            OnlineLanguagePlatform.DBBulkhead.acquire();
+            try {
+                Connection con = DriverManager.getConnection(
+                    "jdbc:mysql://localhost:3306/language_platform",
+                    "root",
+                    "password"
+                );
 
-            PreparedStatement ps = con.prepareStatement(
-                "SELECT role FROM users WHERE email=? AND password=?"
-            );
+                PreparedStatement ps = con.prepareStatement(
+                    "SELECT role FROM users WHERE email=? AND password=?"
+                );
 
-            ps.setString(1, email);
-            ps.setString(2, password);
+                ps.setString(1, email);
+                ps.setString(2, password);
 
-            ResultSet rs = ps.executeQuery();
+                ResultSet rs = ps.executeQuery();
 
-            if (rs.next()) {
-                out.println("<h3>Login Successful</h3>");
-                out.println("<p>Role: " + rs.getString("role") + "</p>");
-            } else {
-                out.println("<h3>Invalid Login</h3>");
-            }
+                if (rs.next()) {
+                    out.println("<h3>Login Successful</h3>");
+                    out.println("<p>Role: " + rs.getString("role") + "</p>");
+                } else {
+                    rateLimiter.recordFailure(email);
+                    out.println("<h3>Invalid Login</h3>");
+                }
 
-            con.close();
+                con.close();
+            } finally {
+                OnlineLanguagePlatform.DBBulkhead.release();
+            }
 
+        } catch (SQLTransientConnectionException e) {
+            response.setStatus(SC_SERVICE_UNAVAILABLE);
+            out.println("<h3>Server Busy, Try Again</h3>");
         } catch (Exception e) {
             out.println("<h3>Error Occurred</h3>");
         }
     }
+
+    // ============================
+    //     LOGIN RATE LIMITING
+    // ============================
+
+    // Token buckets keyed by client address and by email.
+    // Each bucket is a single AtomicLong holding its "theoretical arrival
+    // time" (GCRA), so taking a token is one CAS – no locks on the hot path.
+    // A bucket whose arrival time has fallen behind the clock is full again,
+    // so it carries no state and is dropped by the sweep (bounded memory).
+    public static class LoginRateLimiter {
+
+        private static final int ADDRESS_CAPACITY = 20;
+        private static final long ADDRESS_REFILL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+        private static final int EMAIL_CAPACITY = 5;
+        private static final long EMAIL_REFILL_NANOS = TimeUnit.SECONDS.toNanos(12);
+
+        private static final int MAX_ENTRIES = 100_000;
+        private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+        private final Map<String, AtomicLong> addressBuckets =
+                new ConcurrentHashMap<String, AtomicLong>();
+        private final Map<String, AtomicLong> emailBuckets =
+                new ConcurrentHashMap<String, AtomicLong>();
+
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+        private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejectedByAddress = new LongAdder();
+        private final LongAdder rejectedByEmail = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private final AtomicLong rateWindowStart = new AtomicLong(System.nanoTime());
+        private final AtomicLong allowedAtWindowStart = new AtomicLong();
+        private final AtomicLong rejectedAtWindowStart = new AtomicLong();
+
+        // Returns 0 when the attempt may proceed, otherwise the nanos until it could.
+        public long tryAcquire(String address, String email) {
+            long now = System.nanoTime();
+            maybeSweep(now);
+
+            AtomicLong addressBucket = bucketFor(addressBuckets, normalize(address), now);
+            long wait = (addressBucket == null)
+                    ? ADDRESS_REFILL_NANOS
+                    : take(addressBucket, now, ADDRESS_REFILL_NANOS, ADDRESS_CAPACITY);
+            if (wait > 0) {
+                rejectedByAddress.increment();
+                return wait;
+            }
+
+            // A full email table fails open: rejecting unknown emails would
+            // let a spray of random addresses lock out every other account.
+            // The per-address bucket above still applies.
+            AtomicLong emailBucket = bucketFor(emailBuckets, normalize(email), now);
+            wait = (emailBucket == null)
+                    ? 0
+                    : take(emailBucket, now, EMAIL_REFILL_NANOS, EMAIL_CAPACITY);
+            if (wait > 0) {
+                // the attempt never happens – give the address its token back
+                addressBucket.addAndGet(-ADDRESS_REFILL_NANOS);
+                rejectedByEmail.increment();
+                return wait;
+            }
+
+            allowed.increment();
+            return 0;
+        }
+
+        // Brute-force throttle: a wrong password costs the account an extra token.
+        public void recordFailure(String email) {
+            failures.increment();
+            long now = System.nanoTime();
+            AtomicLong bucket = bucketFor(emailBuckets, normalize(email), now);
+            if (bucket != null) {
+                bucket.accumulateAndGet(now,
+                        (tat, n) -> Math.max(tat, n) + EMAIL_REFILL_NANOS);
+            }
+        }
+
+        public long getAllowedCount() { return allowed.sum(); }
+        public long getRejectedByAddressCount() { return rejectedByAddress.sum(); }
+        public long getRejectedByEmailCount() { return rejectedByEmail.sum(); }
+        public long getRejectedCount() { return rejectedByAddress.sum() + rejectedByEmail.sum(); }
+        public long getFailureCount() { return failures.sum(); }
+        public int getTrackedKeyCount() { return addressBuckets.size() + emailBuckets.size(); }
+
+        // Allowed / rejected per second since the previous call.
+        public String rateSummary() {
+            long now = System.nanoTime();
+            long allowedNow = getAllowedCount();
+            long rejectedNow = getRejectedCount();
+
+            long start = rateWindowStart.getAndSet(now);
+            long allowedBefore = allowedAtWindowStart.getAndSet(allowedNow);
+            long rejectedBefore = rejectedAtWindowStart.getAndSet(rejectedNow);
+
+            double seconds = Math.max(1e-9, (now - start) / 1e9);
+            return String.format(Locale.ROOT,
+                    "allowed=%.1f/s rejected=%.1f/s (total allowed=%d, rejected=%d, failures=%d, keys=%d)",
+                    (allowedNow - allowedBefore) / seconds,
+                    (rejectedNow - rejectedBefore) / seconds,
+                    allowedNow, rejectedNow, getFailureCount(), getTrackedKeyCount());
+        }
+
+        // GCRA step: the bucket holds tokens while its arrival time stays
+        // within capacity * refill of now.
+        private static long take(AtomicLong bucket, long now, long refillNanos, int capacity) {
+            long burst = refillNanos * capacity;
+            while (true) {
+                long tat = bucket.get();
+                long next = Math.max(tat, now) + refillNanos;
+                long wait = next - now - burst;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (bucket.compareAndSet(tat, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        // null means the table is full of live buckets
+        private AtomicLong bucketFor(Map<String, AtomicLong> buckets, String key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= MAX_ENTRIES) {
+                sweep(now);
+                if (buckets.size() >= MAX_ENTRIES) {
+                    return null;
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+
+        private void maybeSweep(long now) {
+            if (now - lastSweep.get() >= SWEEP_INTERVAL_NANOS) {
+                sweep(now);
+            }
+        }
+
+        private void sweep(long now) {
+            if (!sweeping.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                lastSweep.set(now);
+                expire(addressBuckets, now);
+                expire(emailBuckets, now);
+            } finally {
+                sweeping.set(false);
+            }
+        }
+
+        private static void expire(Map<String, AtomicLong> buckets, long now) {
+            for (Map.Entry<String, AtomicLong> e : buckets.entrySet()) {
+                if (e.getValue().get() <= now) {
+                    buckets.remove(e.getKey(), e.getValue());
+                }
+            }
+        }
+
+        private static String normalize(String key) {
+            return key == null ? "" : key.trim().toLowerCase(Locale.ROOT);
+        }
+    }
 }
@@ -0,0 +1,4363 @@
+// OnlineLanguagePlatform.java
+//
+// SINGLE FILE PROJECT – GUI + JDBC + OOP + MULTITHREADING
+//
+// Before running, create MySQL DB:
+//
+// CREATE DATABASE IF NOT EXISTS language_platform;
+// USE language_platform;
+//
+// CREATE TABLE users (
+//   id INT AUTO_INCREMENT PRIMARY KEY,
+//   name VARCHAR(100) NOT NULL,
+//   email VARCHAR(100) UNIQUE NOT NULL,
+//   password VARCHAR(100) NOT NULL,
+//   role ENUM('ADMIN','INSTRUCTOR','LEARNER') NOT NULL
+// );
+//
+// CREATE TABLE lessons (
+//   id INT AUTO_INCREMENT PRIMARY KEY,
+//   title VARCHAR(200) NOT NULL,
+//   content TEXT,
+//   instructor_id INT,
+//   FOREIGN KEY (instructor_id) REFERENCES users(id)
+// );
+//
+// CREATE TABLE catalog_version (
+//   id INT PRIMARY KEY,
+//   version BIGINT NOT NULL
+// );
+// INSERT INTO catalog_version (id, version) VALUES (1, 1);
+//
+// CREATE TABLE lesson_segments (
+//   lesson_id INT NOT NULL,
+//   seq INT NOT NULL,
+//   content MEDIUMTEXT NOT NULL,
+//   PRIMARY KEY (lesson_id, seq),
+//   FOREIGN KEY (lesson_id) REFERENCES lessons(id)
+// );
+//
+// CREATE TABLE progress (
+//   id INT AUTO_INCREMENT PRIMARY KEY,
+//   learner_id INT,
+//   lesson_id INT,
+//   completion_percent INT,
+//   last_updated TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+//                  ON UPDATE CURRENT_TIMESTAMP,
+//   UNIQUE KEY uq_progress (learner_id, lesson_id),
+//   FOREIGN KEY (learner_id) REFERENCES users(id),
+//   FOREIGN KEY (lesson_id) REFERENCES lessons(id)
+// );
+//
+// CREATE TABLE progress_history (
+//   learner_id INT NOT NULL,
+//   lesson_id INT NOT NULL,
+//   resolution ENUM('RAW','MINUTE','DAY') NOT NULL,
+//   base_time BIGINT NOT NULL,
+//   sample_count INT NOT NULL,
+//   samples BLOB NOT NULL,
+//   PRIMARY KEY (learner_id, lesson_id, resolution),
+//   FOREIGN KEY (learner_id) REFERENCES users(id),
+//   FOREIGN KEY (lesson_id) REFERENCES lessons(id)
+// );
+//
+// CREATE TABLE user_purge_jobs (
+//   user_id INT PRIMARY KEY,
+//   reassign_to INT NULL,
+//   phase ENUM('PROGRESS','HISTORY','LESSONS','USER','DONE') NOT NULL,
+//   shard INT NOT NULL DEFAULT 0,
+//   last_key BIGINT NOT NULL DEFAULT 0,
+//   rows_affected BIGINT NOT NULL DEFAULT 0,
+//   sweeps INT NOT NULL DEFAULT 0,
+//   error VARCHAR(500),
+//   updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+//                ON UPDATE CURRENT_TIMESTAMP
+// );
+//
+// Insert at least one Admin, Instructor, Learner manually for testing.
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+public class OnlineLanguagePlatform {
+
+    // ============================
+    //        MODEL LAYER
+    // ============================
+
+    public enum Role {
+        ADMIN, INSTRUCTOR, LEARNER
+    }
+
+    public interface ProgressTrackable {
+        void updateProgress(int lessonId, int percent);
+    }
+
+    public static abstract class User {
+        protected int id;
+        protected String name;
+        protected String email;
+        protected String password;
+        protected Role role;
+
+        public User(int id, String name, String email, String password, Role role) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.password = password;
+            this.role = role;
+        }
+
+        public int getId() { return id; }
+        public String getName() { return name; }
+        public String getEmail() { return email; }
+        public String getPassword() { return password; }
+        public Role getRole() { return role; }
+
+        public abstract String getDashboardTitle(); // polymorphism
+    }
+
+    public static class Admin extends User {
+        public Admin(int id, String name, String email, String password) {
+            super(id, name, email, password, Role.ADMIN);
+        }
+
+        @Override
+        public String getDashboardTitle() {
+            return "Admin Dashboard - " + name;
+        }
+    }
+
+    public static class Instructor extends User {
+        public Instructor(int id, String name, String email, String password) {
+            super(id, name, email, password, Role.INSTRUCTOR);
+        }
+
+        @Override
+        public String getDashboardTitle() {
+            return "Instructor Dashboard - " + name;
+        }
+    }
+
+    public static class Learner extends User implements ProgressTrackable {
+
+        public Learner(int id, String name, String email, String password) {
+            super(id, name, email, password, Role.LEARNER);
+        }
+
+        @Override
+        public String getDashboardTitle() {
+            return "Learner Dashboard - " + name;
+        }
+
+        @Override
+        public void updateProgress(int lessonId, int percent) {
+            // logical behavior; actual DB update via service
+            System.out.println("Learner " + name +
+                    " updated progress for lesson " + lessonId + " to " + percent + "%");
+        }
+    }
+
+    // Row for admin lists and search – deliberately without the password.
+    public static class UserSummary {
+        private final int id;
+        private final String name;
+        private final String email;
+        private final Role role;
+
+        public UserSummary(int id, String name, String email, Role role) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.role = role;
+        }
+
+        public int getId() { return id; }
+        public String getName() { return name; }
+        public String getEmail() { return email; }
+        public Role getRole() { return role; }
+    }
+
+    public static class Lesson {
+        private int id;
+        private String title;
+        private String content;
+        private int instructorId;
+
+        public Lesson(int id, String title, String content, int instructorId) {
+            this.id = id;
+            this.title = title;
+            this.content = content;
+            this.instructorId = instructorId;
+        }
+
+        public int getId() { return id; }
+        public String getTitle() { return title; }
+        public String getContent() { return content; }
+        public int getInstructorId() { return instructorId; }
+
+        @Override
+        public String toString() {
+            return id + " - " + title;
+        }
+    }
+
+    public static class ProgressRecord {
+        private int id;
+        private int learnerId;
+        private int lessonId;
+        private int completionPercent;
+        private LocalDateTime lastUpdated;
+
+        public ProgressRecord(int id, int learnerId, int lessonId,
+                              int completionPercent, LocalDateTime lastUpdated) {
+            this.id = id;
+            this.learnerId = learnerId;
+            this.lessonId = lessonId;
+            this.completionPercent = completionPercent;
+            this.lastUpdated = lastUpdated;
+        }
+
+        public int getId() { return id; }
+        public int getLearnerId() { return learnerId; }
+        public int getLessonId() { return lessonId; }
+        public int getCompletionPercent() { return completionPercent; }
+        public LocalDateTime getLastUpdated() { return lastUpdated; }
+    }
+
+    // One learner-dashboard row: a lesson with this learner's progress on
+    // it. completionPercent and lastUpdated are null for lessons not started.
+    public static class LearnerLessonRow {
+        private final int lessonId;
+        private final String title;
+        private final int instructorId;
+        private final Integer completionPercent;
+        private final LocalDateTime lastUpdated;
+
+        public LearnerLessonRow(int lessonId, String title, int instructorId,
+                                Integer completionPercent, LocalDateTime lastUpdated) {
+            this.lessonId = lessonId;
+            this.title = title;
+            this.instructorId = instructorId;
+            this.completionPercent = completionPercent;
+            this.lastUpdated = lastUpdated;
+        }
+
+        public int getLessonId() { return lessonId; }
+        public String getTitle() { return title; }
+        public int getInstructorId() { return instructorId; }
+        public Integer getCompletionPercent() { return completionPercent; }
+        public LocalDateTime getLastUpdated() { return lastUpdated; }
+
+        // Same rows from separate lesson and progress lists, in lesson order.
+        public static java.util.List<LearnerLessonRow> combine(
+                java.util.List<Lesson> lessons, java.util.List<ProgressRecord> progress) {
+            Map<Integer, ProgressRecord> byLesson = new HashMap<Integer, ProgressRecord>();
+            for (ProgressRecord pr : progress) {
+                byLesson.put(pr.getLessonId(), pr);
+            }
+            java.util.List<LearnerLessonRow> rows =
+                    new ArrayList<LearnerLessonRow>(lessons.size());
+            for (Lesson l : lessons) {
+                ProgressRecord pr = byLesson.get(l.getId());
+                rows.add(new LearnerLessonRow(l.getId(), l.getTitle(), l.getInstructorId(),
+                        pr == null ? null : pr.getCompletionPercent(),
+                        pr == null ? null : pr.getLastUpdated()));
+            }
+            return rows;
+        }
+    }
+
+    // One keyset page of the learner dashboard (lessons ordered by id).
+    public static class DashboardPage {
+        private final java.util.List<LearnerLessonRow> rows;
+        private final boolean hasMore;
+
+        public DashboardPage(java.util.List<LearnerLessonRow> rows, boolean hasMore) {
+            this.rows = rows;
+            this.hasMore = hasMore;
+        }
+
+        public java.util.List<LearnerLessonRow> getRows() { return rows; }
+        public boolean hasMore() { return hasMore; }
+    }
+
+    // Lesson-wide progress aggregate; partial results from shards merge.
+    public static class LessonProgressStats {
+        private final int lessonId;
+        private final long learners;
+        private final long totalPercent;
+        private final long completed;
+
+        public LessonProgressStats(int lessonId, long learners,
+                                   long totalPercent, long completed) {
+            this.lessonId = lessonId;
+            this.learners = learners;
+            this.totalPercent = totalPercent;
+            this.completed = completed;
+        }
+
+        public int getLessonId() { return lessonId; }
+        public long getLearners() { return learners; }
+        public long getCompleted() { return completed; }
+
+        public double getAveragePercent() {
+            return learners == 0 ? 0 : (double) totalPercent / learners;
+        }
+
+        public LessonProgressStats merge(LessonProgressStats other) {
+            return new LessonProgressStats(lessonId, learners + other.learners,
+                    totalPercent + other.totalPercent, completed + other.completed);
+        }
+    }
+
+    // Progress history tiers: recent changes at full (second) resolution,
+    // then the last value per minute, then the last value per UTC day.
+    public enum HistoryResolution {
+        RAW(1, 60L * 60),                 // kept for 1 hour
+        MINUTE(60, 30L * 24 * 60 * 60),   // kept for 30 days
+        DAY(24 * 60 * 60, Long.MAX_VALUE); // kept forever
+
+        private final long bucketSeconds;
+        private final long retentionSeconds;
+
+        HistoryResolution(long bucketSeconds, long retentionSeconds) {
+            this.bucketSeconds = bucketSeconds;
+            this.retentionSeconds = retentionSeconds;
+        }
+
+        public long getBucketSeconds() { return bucketSeconds; }
+        public long getRetentionSeconds() { return retentionSeconds; }
+    }
+
+    public static class ProgressPoint {
+        private final long epochSecond;
+        private final int percent;
+        private final HistoryResolution resolution;
+
+        public ProgressPoint(long epochSecond, int percent,
+                             HistoryResolution resolution) {
+            this.epochSecond = epochSecond;
+            this.percent = percent;
+            this.resolution = resolution;
+        }
+
+        public long getEpochSecond() { return epochSecond; }
+        public int getPercent() { return percent; }
+        public HistoryResolution getResolution() { return resolution; }
+
+        public LocalDateTime getTime() {
+            return LocalDateTime.ofInstant(
+                    Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault());
+        }
+    }
+
+    // Compact time series for one (learner, lesson) at one resolution.
+    // Each sample is two varints: seconds since the previous sample and
+    // the zigzag-encoded change in percent – usually 2-3 bytes a sample.
+    public static class ProgressSeries {
+        private final HistoryResolution resolution;
+        private long baseTime;     // epoch second of the first sample
+        private long lastTime;
+        private int lastPercent;
+        private int count;
+        private byte[] data;
+        private int length;
+
+        public ProgressSeries(HistoryResolution resolution) {
+            this.resolution = resolution;
+            this.data = new byte[16];
+        }
+
+        public static ProgressSeries decode(HistoryResolution resolution,
+                                            long baseTime, int count, byte[] bytes) {
+            ProgressSeries series = new ProgressSeries(resolution);
+            series.baseTime = baseTime;
+            series.lastTime = baseTime;
+            series.data = bytes.length == 0 ? new byte[16] : bytes;
+            series.length = bytes.length;
+            series.count = count;
+            // recover the tail so appends continue the delta chain
+            int[] pos = {0};
+            for (int i = 0; i < count; i++) {
+                series.lastTime += readVarLong(bytes, pos);
+                series.lastPercent += zigzagDecode(readVarLong(bytes, pos));
+            }
+            return series;
+        }
+
+        public HistoryResolution getResolution() { return resolution; }
+        public long getBaseTime() { return baseTime; }
+        public int getCount() { return count; }
+        public boolean isEmpty() { return count == 0; }
+        public int getLastPercent() { return lastPercent; }
+        public long getLastTime() { return lastTime; }
+
+        public byte[] toBytes() {
+            return Arrays.copyOf(data, length);
+        }
+
+        public void append(long epochSecond, int percent) {
+            if (count == 0) {
+                baseTime = epochSecond;
+                lastTime = epochSecond;
+                lastPercent = 0;
+            }
+            long time = Math.max(epochSecond, lastTime); // clock went back: clamp
+            writeVarLong(time - lastTime);
+            writeVarLong(zigzagEncode(percent - lastPercent));
+            lastTime = time;
+            lastPercent = percent;
+            count++;
+        }
+
+        public java.util.List<ProgressPoint> points() {
+            java.util.List<ProgressPoint> list =
+                    new ArrayList<ProgressPoint>(count);
+            int[] pos = {0};
+            long time = baseTime;
+            int percent = 0;
+            for (int i = 0; i < count; i++) {
+                time += readVarLong(data, pos);
+                percent += zigzagDecode(readVarLong(data, pos));
+                list.add(new ProgressPoint(time, percent, resolution));
+            }
+            return list;
+        }
+
+        // Moves samples older than cutoff (aligned to the target's bucket)
+        // into target, keeping the last value per bucket. Returns true if
+        // anything moved.
+        public boolean drainInto(ProgressSeries target, long cutoff) {
+            if (count == 0 || baseTime >= cutoff) {
+                return false;
+            }
+            long bucketSize = target.resolution.getBucketSeconds();
+            ProgressSeries kept = new ProgressSeries(resolution);
+            long pendingBucket = -1;
+            int pendingPercent = 0;
+            for (ProgressPoint p : points()) {
+                if (p.getEpochSecond() < cutoff) {
+                    long bucket = Math.floorDiv(p.getEpochSecond(), bucketSize) * bucketSize;
+                    if (pendingBucket >= 0 && bucket != pendingBucket) {
+                        target.appendIfChanged(pendingBucket, pendingPercent);
+                    }
+                    pendingBucket = bucket;
+                    pendingPercent = p.getPercent();
+                } else {
+                    kept.append(p.getEpochSecond(), p.getPercent());
+                }
+            }
+            if (pendingBucket >= 0) {
+                target.appendIfChanged(pendingBucket, pendingPercent);
+            }
+            baseTime = kept.baseTime;
+            lastTime = kept.lastTime;
+            lastPercent = kept.lastPercent;
+            count = kept.count;
+            data = kept.data;
+            length = kept.length;
+            return true;
+        }
+
+        private void appendIfChanged(long epochSecond, int percent) {
+            if (count == 0 || percent != lastPercent) {
+                append(epochSecond, percent);
+            }
+        }
+
+        private void writeVarLong(long value) {
+            while (true) {
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                if ((value & ~0x7FL) == 0) {
+                    data[length++] = (byte) value;
+                    return;
+                }
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+        }
+
+        private static long readVarLong(byte[] bytes, int[] pos) {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = bytes[pos[0]++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        private static long zigzagEncode(int v) {
+            return ((long) v << 1) ^ ((long) v >> 63);
+        }
+
+        private static int zigzagDecode(long v) {
+            return (int) ((v >>> 1) ^ -(v & 1));
+        }
+    }
+
+    // Steps of a user purge, in order. Each step works in small batches.
+    public enum PurgePhase {
+        PROGRESS,   // learner's progress rows, on every shard in turn
+        HISTORY,    // learner's progress_history rows
+        LESSONS,    // instructor's lessons reassigned or archived
+        USER,       // the users row itself
+        DONE
+    }
+
+    // Persistent state of one purge (user_purge_jobs row).
+    public static class PurgeStatus {
+        private final int userId;
+        private final Integer reassignTo;  // null = archive (instructor_id NULL)
+        private final PurgePhase phase;
+        private final int shard;           // index into the shard ring (PROGRESS)
+        private final long lastKey;
+        private final long rowsAffected;
+        private final int sweeps;          // restarts after the users DELETE hit a FK
+        private final String error;
+
+        public PurgeStatus(int userId, Integer reassignTo, PurgePhase phase, int shard,
+                           long lastKey, long rowsAffected, int sweeps, String error) {
+            this.userId = userId;
+            this.reassignTo = reassignTo;
+            this.phase = phase;
+            this.shard = shard;
+            this.lastKey = lastKey;
+            this.rowsAffected = rowsAffected;
+            this.sweeps = sweeps;
+            this.error = error;
+        }
+
+        public int getUserId() { return userId; }
+        public Integer getReassignTo() { return reassignTo; }
+        public PurgePhase getPhase() { return phase; }
+        public int getShard() { return shard; }
+        public long getLastKey() { return lastKey; }
+        public long getRowsAffected() { return rowsAffected; }
+        public int getSweeps() { return sweeps; }
+        public String getError() { return error; }
+
+        public boolean isDone() {
+            return phase == PurgePhase.DONE;
+        }
+
+        @Override
+        public String toString() {
+            String text = "User " + userId + ": " + phase + ", " + rowsAffected + " rows";
+            return error == null ? text : text + " (" + error + ")";
+        }
+    }
+
+    // ============================
+    //     JDBC / DB CONNECTION
+    // ============================
+
+    public static class DBConnectionManager {
+        private static final String URL =
+                "jdbc:mysql://localhost:3306/language_platform";
+        private static final String USER = "root";    // change
+        private static final String PASSWORD = "root"; // change
+
+        private DBConnectionManager() {}
+
+        public static String getDefaultUrl() {
+            return URL;
+        }
+
+        public static Connection getConnection() throws SQLException {
+            return getConnection(URL);
+        }
+
+        // Every connection holds a bulkhead permit until it is closed.
+        public static Connection getConnection(String url) throws SQLException {
+            DBBulkhead.acquire();
+            try {
+                return DBBulkhead.guard(QueryProfiler.wrap(
+                        DriverManager.getConnection(url, USER, PASSWORD), url));
+            } catch (SQLException | RuntimeException e) {
+                DBBulkhead.release();
+                throw e;
+            }
+        }
+
+        // Same permit accounting, but not profiled (used for EXPLAIN).
+        static Connection getUnprofiledConnection(String url) throws SQLException {
+            DBBulkhead.acquire();
+            try {
+                return DBBulkhead.guard(DriverManager.getConnection(url, USER, PASSWORD));
+            } catch (SQLException | RuntimeException e) {
+                DBBulkhead.release();
+                throw e;
+            }
+        }
+    }
+
+    // Query profiling around every DAO statement. Records SQL text,
+    // parameter shape, rows, execute time (until execute returns) and fetch
+    // time (from then until the result set is closed). Statements slower
+    // than -Dcodelingo.slowQueryMillis (default 100) in total get their
+    // EXPLAIN captured in the background on a separate connection, and the
+    // 100 slowest are kept for the admin dashboard.
+    // Everything is kept in memory in this JVM: the dashboard shows the
+    // queries run by this process only, not those of other desktop clients
+    // or the servlet container, and the profile is lost on exit.
+    public static class QueryProfiler {
+        private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(
+                Long.getLong("codelingo.slowQueryMillis", 100L));
+        private static final double SAMPLE_RATE = Double.parseDouble(
+                System.getProperty("codelingo.queryProfile.sampleRate", "1.0"));
+        private static final int WORST_SIZE = 100;
+        private static final int MAX_STATEMENTS = 500;
+        private static final int EXPLAIN_QUEUE = 32;
+        private static final long EXPLAIN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+        // min-heap on elapsed time: the head is the fastest of the kept
+        // queries and is the one evicted when a slower query arrives
+        private static final PriorityQueue<SlowQuery> worst = new PriorityQueue<SlowQuery>(
+                WORST_SIZE, (a, b) -> Long.compare(a.getNanos(), b.getNanos()));
+        private static final Map<String, StatementStats> stats =
+                new ConcurrentHashMap<String, StatementStats>();
+        // statement text -> last EXPLAIN time, least recently used evicted
+        private static final Map<String, Long> lastExplained =
+                new LinkedHashMap<String, Long>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                        return size() > MAX_STATEMENTS;
+                    }
+                };
+        // one daemon thread; a full queue rejects the task (AbortPolicy)
+        private static final ExecutorService explainer = new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(EXPLAIN_QUEUE),
+                task -> {
+                    Thread t = new Thread(task, "codelingo-explain");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        private QueryProfiler() {}
+
+        public static class SlowQuery {
+            private final LocalDateTime at;
+            private final String sql;
+            private final String paramShape;
+            private final long rows;
+            private final long executeNanos;
+            private final long fetchNanos;
+            private volatile String explain;
+
+            SlowQuery(LocalDateTime at, String sql, String paramShape,
+                      long rows, long executeNanos, long fetchNanos, String explain) {
+                this.at = at;
+                this.sql = sql;
+                this.paramShape = paramShape;
+                this.rows = rows;
+                this.executeNanos = executeNanos;
+                this.fetchNanos = fetchNanos;
+                this.explain = explain;
+            }
+
+            public LocalDateTime getAt() { return at; }
+            public String getSql() { return sql; }
+            public String getParamShape() { return paramShape; }
+            public long getRows() { return rows; }
+            public long getNanos() { return executeNanos + fetchNanos; }
+            public double getMillis() { return getNanos() / 1e6; }
+            public double getExecuteMillis() { return executeNanos / 1e6; }
+            public double getFetchMillis() { return fetchNanos / 1e6; }
+            public String getExplain() { return explain; }
+        }
+
+        public static class StatementStats {
+            private final String sql;
+            private final LongAdder count = new LongAdder();
+            private final LongAdder totalNanos = new LongAdder();
+            private final LongAdder executeNanos = new LongAdder();
+            private final LongAdder fetchNanos = new LongAdder();
+            private final LongAdder totalRows = new LongAdder();
+            private final AtomicLong maxNanos = new AtomicLong();
+            private final LongAdder slow = new LongAdder();
+
+            StatementStats(String sql) {
+                this.sql = sql;
+            }
+
+            public String getSql() { return sql; }
+            public long getCount() { return count.sum(); }
+            public long getSlowCount() { return slow.sum(); }
+            public double getMaxMillis() { return maxNanos.get() / 1e6; }
+
+            public double getAverageMillis() {
+                return average(totalNanos) / 1e6;
+            }
+
+            public double getAverageExecuteMillis() {
+                return average(executeNanos) / 1e6;
+            }
+
+            public double getAverageFetchMillis() {
+                return average(fetchNanos) / 1e6;
+            }
+
+            public double getAverageRows() {
+                return average(totalRows);
+            }
+
+            private double average(LongAdder total) {
+                long c = count.sum();
+                return c == 0 ? 0 : (double) total.sum() / c;
+            }
+        }
+
+        // Slowest first.
+        public static java.util.List<SlowQuery> worstOffenders() {
+            java.util.List<SlowQuery> list;
+            synchronized (worst) {
+                list = new ArrayList<SlowQuery>(worst);
+            }
+            list.sort((a, b) -> Long.compare(b.getNanos(), a.getNanos()));
+            return list;
+        }
+
+        // Highest total time first.
+        public static java.util.List<StatementStats> statementStats() {
+            java.util.List<StatementStats> list = new ArrayList<StatementStats>(stats.values());
+            list.sort((a, b) -> Long.compare(b.totalNanos.sum(), a.totalNanos.sum()));
+            return list;
+        }
+
+        public static void reset() {
+            synchronized (worst) {
+                worst.clear();
+            }
+            stats.clear();
+            synchronized (lastExplained) {
+                lastExplained.clear();
+            }
+        }
+
+        static Connection wrap(Connection conn, String url) {
+            return (Connection) Proxy.newProxyInstance(
+                    QueryProfiler.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = forward(conn, method, args);
+                        String name = method.getName();
+                        if (("prepareStatement".equals(name) || "createStatement".equals(name))
+                                && sampled()) {
+                            String sql = "prepareStatement".equals(name)
+                                    ? (String) args[0] : null;
+                            return profiled(url, (Statement) result, sql);
+                        }
+                        return result;
+                    });
+        }
+
+        private static boolean sampled() {
+            return SAMPLE_RATE >= 1.0
+                    || java.util.concurrent.ThreadLocalRandom.current().nextDouble() < SAMPLE_RATE;
+        }
+
+        private static Statement profiled(String url, Statement st, String preparedSql) {
+            Class<?> type = st instanceof PreparedStatement
+                    ? PreparedStatement.class : Statement.class;
+            return (Statement) Proxy.newProxyInstance(
+                    QueryProfiler.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler(url, st, preparedSql));
+        }
+
+        // Tracks one statement: parameters, timing, and the open result set.
+        private static class StatementHandler implements InvocationHandler {
+            private final String url;
+            private final Statement target;
+            private final String preparedSql;
+            private final TreeMap<Integer, String> shape = new TreeMap<Integer, String>();
+            private final TreeMap<Integer, Object> values = new TreeMap<Integer, Object>();
+
+            // pending result set measurement
+            private String pendingSql;
+            private String pendingShape;
+            private TreeMap<Integer, Object> pendingValues;
+            private long pendingExecuteNanos;
+            private long pendingFetchStart;
+            private long pendingRows;
+            private boolean pending;
+
+            StatementHandler(String url, Statement target, String preparedSql) {
+                this.url = url;
+                this.target = target;
+                this.preparedSql = preparedSql;
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer) {
+                    shape.put((Integer) args[0], name.substring(3).toUpperCase(Locale.ROOT));
+                    values.put((Integer) args[0], "setNull".equals(name) ? null : args[1]);
+                } else if ("clearParameters".equals(name)) {
+                    shape.clear();
+                    values.clear();
+                } else if ("close".equals(name)) {
+                    finishPending();
+                }
+
+                if (!name.startsWith("execute")) {
+                    return forward(target, method, args);
+                }
+
+                finishPending();
+                String sql = args != null && args.length > 0 && args[0] instanceof String
+                        ? (String) args[0] : preparedSql;
+                long start = System.nanoTime();
+                Object result = forward(target, method, args);
+                long executed = System.nanoTime();
+
+                if (result instanceof ResultSet) {
+                    pending = true;
+                    pendingSql = sql;
+                    pendingShape = shapeText();
+                    pendingValues = new TreeMap<Integer, Object>(values);
+                    pendingExecuteNanos = executed - start;
+                    pendingFetchStart = executed;
+                    pendingRows = 0;
+                    return countingResultSet((ResultSet) result);
+                }
+                record(url, sql, shapeText(), values, rowsOf(result), executed - start, 0);
+                return result;
+            }
+
+            private ResultSet countingResultSet(ResultSet rs) {
+                return (ResultSet) Proxy.newProxyInstance(
+                        QueryProfiler.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        (p, m, a) -> {
+                            if ("close".equals(m.getName())) {
+                                Object r = forward(rs, m, a);
+                                finishPending();
+                                return r;
+                            }
+                            Object r = forward(rs, m, a);
+                            if ("next".equals(m.getName()) && Boolean.TRUE.equals(r)) {
+                                pendingRows++;
+                            }
+                            return r;
+                        });
+            }
+
+            private void finishPending() {
+                if (pending) {
+                    pending = false;
+                    record(url, pendingSql, pendingShape, pendingValues, pendingRows,
+                            pendingExecuteNanos, System.nanoTime() - pendingFetchStart);
+                }
+            }
+
+            private String shapeText() {
+                return shape.isEmpty() ? "()" : "(" + String.join(", ", shape.values()) + ")";
+            }
+
+            private static long rowsOf(Object result) {
+                if (result instanceof Integer) {
+                    return (Integer) result;
+                }
+                if (result instanceof Long) {
+                    return (Long) result;
+                }
+                if (result instanceof int[]) {
+                    long sum = 0;
+                    for (int n : (int[]) result) {
+                        sum += Math.max(0, n);
+                    }
+                    return sum;
+                }
+                return 0;
+            }
+        }
+
+        private static void record(String url, String sql, String shape,
+                                   Map<Integer, Object> values, long rows,
+                                   long executeNanos, long fetchNanos) {
+            if (sql == null) {
+                return;
+            }
+            long nanos = executeNanos + fetchNanos;
+            StatementStats st = stats.get(sql);
+            if (st == null && stats.size() < MAX_STATEMENTS) {
+                st = stats.computeIfAbsent(sql, StatementStats::new);
+            }
+            if (st != null) {
+                st.count.increment();
+                st.totalNanos.add(nanos);
+                st.executeNanos.add(executeNanos);
+                st.fetchNanos.add(fetchNanos);
+                st.totalRows.add(rows);
+                st.maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+            if (nanos < SLOW_NANOS) {
+                return;
+            }
+            if (st != null) {
+                st.slow.increment();
+            }
+            SlowQuery q = new SlowQuery(LocalDateTime.now(), sql, shape, rows,
+                    executeNanos, fetchNanos, null);
+            synchronized (worst) {
+                if (worst.size() >= WORST_SIZE) {
+                    if (worst.peek().getNanos() >= nanos) {
+                        return; // faster than everything kept
+                    }
+                    worst.poll();
+                }
+                worst.add(q);
+            }
+            scheduleExplain(q, url, values);
+        }
+
+        // At most one EXPLAIN per statement text per minute, run on the
+        // explainer thread so the caller keeps neither its connection nor
+        // its bulkhead permit busy. q shows a placeholder until then.
+        private static void scheduleExplain(SlowQuery q, String url,
+                                            Map<Integer, Object> values) {
+            String sql = q.getSql();
+            String verb = sql.trim().split("\\s+", 2)[0].toUpperCase(Locale.ROOT);
+            if (!verb.equals("SELECT") && !verb.equals("UPDATE")
+                    && !verb.equals("DELETE") && !verb.equals("INSERT")) {
+                q.explain = "(no EXPLAIN for " + verb + ")";
+                return;
+            }
+            long now = System.nanoTime();
+            synchronized (lastExplained) {
+                Long last = lastExplained.get(sql);
+                if (last != null && now - last < EXPLAIN_INTERVAL_NANOS) {
+                    q.explain = "(EXPLAIN captured for an earlier sample)";
+                    return;
+                }
+                lastExplained.put(sql, now);
+            }
+            Map<Integer, Object> params = new TreeMap<Integer, Object>(values);
+            // set before submitting so it cannot overwrite a finished plan
+            q.explain = "(EXPLAIN pending)";
+            try {
+                explainer.execute(() -> q.explain = explain(url, sql, params));
+            } catch (RejectedExecutionException e) {
+                q.explain = "(EXPLAIN skipped: queue full)";
+                synchronized (lastExplained) {
+                    // let the next slow sample of this statement try again
+                    lastExplained.remove(sql, now);
+                }
+            }
+        }
+
+        private static String explain(String url, String sql, Map<Integer, Object> values) {
+            try (Connection conn = DBConnectionManager.getUnprofiledConnection(url);
+                 PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+                for (Map.Entry<Integer, Object> e : values.entrySet()) {
+                    ps.setObject(e.getKey(), e.getValue());
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    ResultSetMetaData md = rs.getMetaData();
+                    StringBuilder sb = new StringBuilder();
+                    for (int c = 1; c <= md.getColumnCount(); c++) {
+                        sb.append(c > 1 ? " | " : "").append(md.getColumnLabel(c));
+                    }
+                    while (rs.next()) {
+                        sb.append('\n');
+                        for (int c = 1; c <= md.getColumnCount(); c++) {
+                            sb.append(c > 1 ? " | " : "").append(rs.getString(c));
+                        }
+                    }
+                    return sb.toString();
+                }
+            } catch (SQLException e) {
+                return "(EXPLAIN failed: " + e.getMessage() + ")";
+            }
+        }
+
+        private static Object forward(Object target, Method method, Object[] args)
+                throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    // Consistent-hash ring over progress shards. Each shard owns 128 points
+    // on the ring (MD5 of "name#i"); a learner belongs to the first point at
+    // or after the hash of its id, so adding a shard moves only ~1/N of the
+    // learners. Shards are named so a host can move without reshuffling.
+    public static class ShardRing {
+        private static final int VIRTUAL_NODES = 128;
+
+        public static class Shard {
+            private final String name;
+            private final String url;
+
+            public Shard(String name, String url) {
+                this.name = name;
+                this.url = url;
+            }
+
+            public String getName() { return name; }
+            public String getUrl() { return url; }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        }
+
+        private final java.util.List<Shard> shards;
+        private final TreeMap<Long, Shard> ring = new TreeMap<Long, Shard>();
+
+        public ShardRing(java.util.List<Shard> shards) {
+            if (shards.isEmpty()) {
+                throw new IllegalArgumentException("At least one shard is required");
+            }
+            this.shards = Collections.unmodifiableList(new ArrayList<Shard>(shards));
+            for (Shard shard : shards) {
+                for (int i = 0; i < VIRTUAL_NODES; i++) {
+                    ring.put(md5Long(shard.getName() + "#" + i), shard);
+                }
+            }
+        }
+
+        // "name=jdbc:url,name=jdbc:url" – a bare URL is its own name
+        public static ShardRing parse(String spec) {
+            java.util.List<Shard> shards = new ArrayList<Shard>();
+            for (String part : spec.split(",")) {
+                String p = part.trim();
+                if (p.isEmpty()) {
+                    continue;
+                }
+                int eq = p.indexOf('=');
+                if (eq > 0 && !p.substring(0, eq).contains(":")) {
+                    shards.add(new Shard(p.substring(0, eq), p.substring(eq + 1)));
+                } else {
+                    shards.add(new Shard(p, p));
+                }
+            }
+            return new ShardRing(shards);
+        }
+
+        public java.util.List<Shard> getShards() {
+            return shards;
+        }
+
+        public Shard shardFor(int learnerId) {
+            Map.Entry<Long, Shard> e = ring.ceilingEntry(mix(learnerId));
+            return e != null ? e.getValue() : ring.firstEntry().getValue();
+        }
+
+        // murmur3 finalizer – spreads sequential ids over the ring
+        private static long mix(long k) {
+            k ^= k >>> 33;
+            k *= 0xff51afd7ed558ccdL;
+            k ^= k >>> 33;
+            k *= 0xc4ceb9fe1a85ec53L;
+            k ^= k >>> 33;
+            return k;
+        }
+
+        private static long md5Long(String s) {
+            try {
+                byte[] d = MessageDigest.getInstance("MD5")
+                        .digest(s.getBytes(StandardCharsets.UTF_8));
+                long v = 0;
+                for (int i = 0; i < 8; i++) {
+                    v = (v << 8) | (d[i] & 0xFF);
+                }
+                return v;
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // Progress shards from -Dcodelingo.progress.shards; without it the
+    // single shard is the main database, exactly as before.
+    public static class ProgressShards {
+        private static final ShardRing ring = loadRing();
+
+        private ProgressShards() {}
+
+        public static ShardRing ring() {
+            return ring;
+        }
+
+        public static Connection connectionFor(int learnerId) throws SQLException {
+            return connection(ring.shardFor(learnerId));
+        }
+
+        public static Connection connection(ShardRing.Shard shard) throws SQLException {
+            return DBConnectionManager.getConnection(shard.getUrl());
+        }
+
+        // true when the shard is the main database (lessons live there too)
+        public static boolean isMain(ShardRing.Shard shard) {
+            return shard.getUrl().equals(DBConnectionManager.getDefaultUrl());
+        }
+
+        private static ShardRing loadRing() {
+            String spec = System.getProperty("codelingo.progress.shards");
+            if (spec == null || spec.trim().isEmpty()) {
+                return new ShardRing(Collections.singletonList(
+                        new ShardRing.Shard("main", DBConnectionManager.getDefaultUrl())));
+            }
+            return ShardRing.parse(spec);
+        }
+    }
+
+    // Bulkhead – caps how many threads use MySQL at the same time.
+    // Sized to the connection budget (-Dcodelingo.db.poolSize, default 10).
+    // Extra callers queue on a fair semaphore instead of opening more
+    // connections, so thousands of virtual threads cannot flood the server.
+    public static class DBBulkhead {
+        private static final int PERMITS =
+                Integer.getInteger("codelingo.db.poolSize", 10);
+        private static final long TIMEOUT_MILLIS =
+                Long.getLong("codelingo.db.acquireTimeoutMillis", 5000L);
+
+        private static final Semaphore permits = new Semaphore(PERMITS, true);
+
+        // queueing metrics
+        private static final AtomicInteger waiting = new AtomicInteger();
+        private static final AtomicInteger maxWaiting = new AtomicInteger();
+        private static final LongAdder acquired = new LongAdder();
+        private static final LongAdder queued = new LongAdder();
+        private static final LongAdder timedOut = new LongAdder();
+        private static final LongAdder waitNanos = new LongAdder();
+
+        private DBBulkhead() {}
+
+        public static void acquire() throws SQLException {
+            try {
+                // timed form keeps the semaphore fair even when a permit is free
+                if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                    acquired.increment();
+                    return;
+                }
+                queued.increment();
+                maxWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+                long start = System.nanoTime();
+                try {
+                    if (!permits.tryAcquire(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        timedOut.increment();
+                        throw new SQLTransientConnectionException(
+                                "Database busy: no connection available within "
+                                        + TIMEOUT_MILLIS + " ms");
+                    }
+                    acquired.increment();
+                } finally {
+                    waiting.decrementAndGet();
+                    waitNanos.add(System.nanoTime() - start);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException(
+                        "Interrupted while waiting for a database connection", e);
+            }
+        }
+
+        public static void release() {
+            permits.release();
+        }
+
+        // Closing the returned connection gives the permit back (once).
+        static Connection guard(Connection conn) {
+            AtomicBoolean released = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(
+                    DBBulkhead.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName())
+                                && method.getParameterCount() == 0) {
+                            if (released.compareAndSet(false, true)) {
+                                try {
+                                    conn.close();
+                                } finally {
+                                    release();
+                                }
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(conn, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+
+        public static int getPermits() { return PERMITS; }
+        public static int getInUse() { return PERMITS - permits.availablePermits(); }
+        public static int getWaiting() { return waiting.get(); }
+        public static int getMaxWaiting() { return maxWaiting.get(); }
+        public static long getAcquiredCount() { return acquired.sum(); }
+        public static long getQueuedCount() { return queued.sum(); }
+        public static long getTimeoutCount() { return timedOut.sum(); }
+
+        public static double getAverageQueueMillis() {
+            long q = queued.sum();
+            return q == 0 ? 0 : waitNanos.sum() / 1e6 / q;
+        }
+
+        public static void resetStats() {
+            maxWaiting.set(waiting.get());
+            acquired.reset();
+            queued.reset();
+            timedOut.reset();
+            waitNanos.reset();
+        }
+
+        public static String summary() {
+            return String.format(Locale.ROOT,
+                    "db bulkhead: %d/%d in use, %d waiting (max %d), "
+                            + "%d acquired, %d queued (avg %.1f ms), %d timed out",
+                    getInUse(), PERMITS, getWaiting(), getMaxWaiting(),
+                    getAcquiredCount(), getQueuedCount(),
+                    getAverageQueueMillis(), getTimeoutCount());
+        }
+    }
+
+    // ============================
+    //          DAO LAYER
+    // ============================
+
+    public static class UserDAO {
+
+        public User findByEmailAndPassword(String email, String password)
+                throws SQLException {
+            String sql = "SELECT * FROM users WHERE email=? AND password=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setString(1, email);
+                ps.setString(2, password);
+
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        Role role = Role.valueOf(rs.getString("role"));
+                        int id = rs.getInt("id");
+                        String name = rs.getString("name");
+                        String pwd = rs.getString("password");
+
+                        switch (role) {
+                            case ADMIN:
+                                return new Admin(id, name, email, pwd);
+                            case INSTRUCTOR:
+                                return new Instructor(id, name, email, pwd);
+                            case LEARNER:
+                                return new Learner(id, name, email, pwd);
+                            default:
+                                return null;
+                        }
+                    }
+                }
+            }
+            return null;
+        }
+
+        public java.util.List<User> findAll() throws SQLException {
+            java.util.List<User> list = new ArrayList<User>();
+            String sql = "SELECT * FROM users";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    Role role = Role.valueOf(rs.getString("role"));
+                    int id = rs.getInt("id");
+                    String name = rs.getString("name");
+                    String email = rs.getString("email");
+                    String pwd = rs.getString("password");
+
+                    switch (role) {
+                        case ADMIN:
+                            list.add(new Admin(id, name, email, pwd));
+                            break;
+                        case INSTRUCTOR:
+                            list.add(new Instructor(id, name, email, pwd));
+                            break;
+                        case LEARNER:
+                            list.add(new Learner(id, name, email, pwd));
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+            return list;
+        }
+
+        // Streams id/name/email/role rows (no password) without
+        // materializing the table – MySQL streams with fetch size MIN_VALUE.
+        public void forEachSummary(Consumer<UserSummary> consumer) throws SQLException {
+            String sql = "SELECT id, name, email, role FROM users";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 Statement st = conn.createStatement(
+                         ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+                st.setFetchSize(Integer.MIN_VALUE);
+                try (ResultSet rs = st.executeQuery(sql)) {
+                    while (rs.next()) {
+                        consumer.accept(new UserSummary(
+                                rs.getInt("id"),
+                                rs.getString("name"),
+                                rs.getString("email"),
+                                Role.valueOf(rs.getString("role"))));
+                    }
+                }
+            }
+        }
+
+        public void save(User user) throws SQLException {
+            String sql = "INSERT INTO users(name, email, password, role) " +
+                    "VALUES(?,?,?,?)";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql,
+                         Statement.RETURN_GENERATED_KEYS)) {
+
+                ps.setString(1, user.getName());
+                ps.setString(2, user.getEmail());
+                ps.setString(3, user.getPassword());
+                ps.setString(4, user.getRole().name());
+                ps.executeUpdate();
+
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        UserSearchIndex.add(new UserSummary(keys.getInt(1),
+                                user.getName(), user.getEmail(), user.getRole()));
+                    }
+                }
+            }
+        }
+
+        // null when there is no such user
+        public Role findRole(int id) throws SQLException {
+            String sql = "SELECT role FROM users WHERE id=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? Role.valueOf(rs.getString("role")) : null;
+                }
+            }
+        }
+
+        public void delete(int id) throws SQLException {
+            String sql = "DELETE FROM users WHERE id=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, id);
+                ps.executeUpdate();
+            }
+            UserSearchIndex.remove(id);
+        }
+    }
+
+    public static class LessonDAO {
+        private static final int SEGMENT_BATCH = 8;
+
+        public java.util.List<Lesson> findAll() throws SQLException {
+            java.util.List<Lesson> list = new ArrayList<Lesson>();
+            String sql = "SELECT * FROM lessons";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    Lesson lesson = new Lesson(
+                            rs.getInt("id"),
+                            rs.getString("title"),
+                            rs.getString("content"),
+                            rs.getInt("instructor_id")
+                    );
+                    list.add(lesson);
+                }
+            }
+            return list;
+        }
+
+        // title and owner only – no content
+        public Lesson findById(int id) throws SQLException {
+            String sql = "SELECT id, title, instructor_id FROM lessons WHERE id=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        return new Lesson(rs.getInt("id"), rs.getString("title"),
+                                null, rs.getInt("instructor_id"));
+                    }
+                }
+            }
+            return null;
+        }
+
+        // catalog projection – every lesson without its content
+        public java.util.List<Lesson> findCatalog() throws SQLException {
+            java.util.List<Lesson> list = new ArrayList<Lesson>();
+            String sql = "SELECT id, title, instructor_id FROM lessons ORDER BY id";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    list.add(new Lesson(rs.getInt("id"), rs.getString("title"),
+                            null, rs.getInt("instructor_id")));
+                }
+            }
+            return list;
+        }
+
+        // Bumped by every write that changes the catalog, so other
+        // processes (the servlet container) can tell their copy is stale.
+        public long findCatalogVersion() throws SQLException {
+            String sql = "SELECT version FROM catalog_version WHERE id=1";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(sql)) {
+                return rs.next() ? rs.getLong("version") : 0;
+            }
+        }
+
+        private static void bumpCatalogVersion(Connection conn) throws SQLException {
+            String sql = "INSERT INTO catalog_version(id, version) VALUES(1, 1) " +
+                    "ON DUPLICATE KEY UPDATE version = version + 1";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.executeUpdate();
+            }
+        }
+
+        // Returns the generated lesson id.
+        public int save(Lesson lesson) throws SQLException {
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                return insertLesson(conn, lesson);
+            }
+        }
+
+        // Large bodies are stored in lesson_segments (content column stays
+        // NULL); lesson and segments are written in one transaction.
+        // Segments are pulled from the iterator as they are written.
+        public int saveSegmented(Lesson lesson, Iterator<String> segments)
+                throws SQLException {
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    int id = insertLesson(conn,
+                            new Lesson(0, lesson.getTitle(), null, lesson.getInstructorId()));
+                    writeSegments(conn, id, segments);
+                    conn.commit();
+                    return id;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        }
+
+        public int countSegments(int lessonId) throws SQLException {
+            String sql = "SELECT COUNT(*) FROM lesson_segments WHERE lesson_id=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, lessonId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        public String findSegment(int lessonId, int seq) throws SQLException {
+            String sql = "SELECT content FROM lesson_segments WHERE lesson_id=? AND seq=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, lessonId);
+                ps.setInt(2, seq);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? rs.getString("content") : "";
+                }
+            }
+        }
+
+        // Writes only the given (changed) segments, atomically.
+        public void saveSegments(int lessonId, Map<Integer, String> segments)
+                throws SQLException {
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    writeSegments(conn, lessonId, segments);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+        }
+
+        // Moves a lesson's body from lessons.content into segments, reading
+        // the column as a character stream. Returns the segment count.
+        public int segmentLegacyContent(int lessonId) throws SQLException {
+            String select = "SELECT content FROM lessons WHERE id=? FOR UPDATE";
+            String count = "SELECT COUNT(*) FROM lesson_segments WHERE lesson_id=?";
+            String clear = "UPDATE lessons SET content=NULL WHERE id=?";
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    int written;
+                    try (PreparedStatement ps = conn.prepareStatement(select)) {
+                        ps.setInt(1, lessonId);
+                        try (ResultSet rs = ps.executeQuery()) {
+                            // Re-check under the row lock: another window may
+                            // have segmented the lesson while we waited for it.
+                            int existing = countSegments(conn, count, lessonId);
+                            Reader in = rs.next() ? rs.getCharacterStream("content") : null;
+                            if (existing > 0 || in == null) {
+                                conn.commit();
+                                return existing;
+                            }
+                            written = writeSegments(conn, lessonId, LessonDocument.segments(in));
+                        }
+                    }
+                    if (written == 0) {
+                        // empty (not NULL) content still moves to one segment
+                        Map<Integer, String> empty = new TreeMap<Integer, String>();
+                        empty.put(0, "");
+                        writeSegments(conn, lessonId, empty);
+                        written = 1;
+                    }
+                    try (PreparedStatement ps = conn.prepareStatement(clear)) {
+                        ps.setInt(1, lessonId);
+                        ps.executeUpdate();
+                    }
+                    conn.commit();
+                    return written;
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } catch (UncheckedIOException e) {
+                    conn.rollback();
+                    throw new SQLException("Error reading lesson content", e.getCause());
+                }
+            }
+        }
+
+        private static int countSegments(Connection conn, String sql, int lessonId)
+                throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                ps.setInt(1, lessonId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    return rs.getInt(1);
+                }
+            }
+        }
+
+        // One purge batch: moves the instructor's next lessons (by id) to
+        // another instructor, or archives them (instructor_id NULL) when
+        // newInstructorId is null. Returns the lesson ids changed.
+        public java.util.List<Integer> reassignBatch(int instructorId, long afterId,
+                                                     Integer newInstructorId, int limit)
+                throws SQLException {
+            String select = "SELECT id FROM lessons WHERE instructor_id=? AND id > ? " +
+                    "ORDER BY id LIMIT ?";
+            String update = "UPDATE lessons SET instructor_id=? " +
+                    "WHERE instructor_id=? AND id > ? AND id <= ?";
+            java.util.List<Integer> ids = new ArrayList<Integer>();
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                try (PreparedStatement ps = conn.prepareStatement(select)) {
+                    ps.setInt(1, instructorId);
+                    ps.setLong(2, afterId);
+                    ps.setInt(3, limit);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            ids.add(rs.getInt("id"));
+                        }
+                    }
+                }
+                if (ids.isEmpty()) {
+                    return ids;
+                }
+                try (PreparedStatement ps = conn.prepareStatement(update)) {
+                    if (newInstructorId == null) {
+                        ps.setNull(1, Types.INTEGER);
+                    } else {
+                        ps.setInt(1, newInstructorId);
+                    }
+                    ps.setInt(2, instructorId);
+                    ps.setLong(3, afterId);
+                    ps.setInt(4, ids.get(ids.size() - 1));
+                    ps.executeUpdate();
+                }
+                bumpCatalogVersion(conn);
+            }
+            return ids;
+        }
+
+        private static int insertLesson(Connection conn, Lesson lesson) throws SQLException {
+            String sql = "INSERT INTO lessons(title, content, instructor_id) " +
+                    "VALUES(?,?,?)";
+            try (PreparedStatement ps = conn.prepareStatement(sql,
+                    Statement.RETURN_GENERATED_KEYS)) {
+
+                ps.setString(1, lesson.getTitle());
+                ps.setString(2, lesson.getContent());
+                ps.setInt(3, lesson.getInstructorId());
+                ps.executeUpdate();
+                int id;
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    id = keys.next() ? keys.getInt(1) : 0;
+                }
+                bumpCatalogVersion(conn);
+                return id;
+            }
+        }
+
+        private static void writeSegments(Connection conn, int lessonId,
+                                          Map<Integer, String> segments) throws SQLException {
+            String sql = "INSERT INTO lesson_segments(lesson_id, seq, content) " +
+                    "VALUES(?,?,?) ON DUPLICATE KEY UPDATE content = VALUES(content)";
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, String> e : segments.entrySet()) {
+                    ps.setInt(1, lessonId);
+                    ps.setInt(2, e.getKey());
+                    ps.setString(3, e.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+
+        // Streaming variant: flushes the batch every few segments so only
+        // a handful are held at once. Returns the number written.
+        private static int writeSegments(Connection conn, int lessonId,
+                                         Iterator<String> segments) throws SQLException {
+            String sql = "INSERT INTO lesson_segments(lesson_id, seq, content) " +
+                    "VALUES(?,?,?) ON DUPLICATE KEY UPDATE content = VALUES(content)";
+            int seq = 0;
+            try (PreparedStatement ps = conn.prepareStatement(sql)) {
+                while (segments.hasNext()) {
+                    ps.setInt(1, lessonId);
+                    ps.setInt(2, seq++);
+                    ps.setString(3, segments.next());
+                    ps.addBatch();
+                    if (seq % SEGMENT_BATCH == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                if (seq % SEGMENT_BATCH != 0) {
+                    ps.executeBatch();
+                }
+            }
+            return seq;
+        }
+    }
+
+    public static class ProgressDAO {
+
+        public void saveOrUpdateProgress(int learnerId, int lessonId, int percent)
+                throws SQLException {
+            String sql =
+                    "INSERT INTO progress(learner_id, lesson_id, completion_percent) " +
+                    "VALUES(?,?,?) " +
+                    "ON DUPLICATE KEY UPDATE completion_percent = VALUES(completion_percent)";
+            try (Connection conn = ProgressShards.connectionFor(learnerId);
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, learnerId);
+                ps.setInt(2, lessonId);
+                ps.setInt(3, percent);
+                ps.executeUpdate();
+            }
+        }
+
+        public java.util.List<ProgressRecord> findByLearner(int learnerId)
+                throws SQLException {
+            java.util.List<ProgressRecord> list =
+                    new ArrayList<ProgressRecord>();
+            String sql = "SELECT * FROM progress WHERE learner_id=?";
+            try (Connection conn = ProgressShards.connectionFor(learnerId);
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, learnerId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp ts = rs.getTimestamp("last_updated");
+                        LocalDateTime ldt = null;
+                        if (ts != null) {
+                            ldt = ts.toLocalDateTime();
+                        }
+                        ProgressRecord pr = new ProgressRecord(
+                                rs.getInt("id"),
+                                rs.getInt("learner_id"),
+                                rs.getInt("lesson_id"),
+                                rs.getInt("completion_percent"),
+                                ldt
+                        );
+                        list.add(pr);
+                    }
+                }
+            }
+            return list;
+        }
+
+        // One purge batch: deletes the learner's next rows by lesson_id on
+        // the given shard. Each call is its own short transaction that
+        // locks only this slice of the (learner_id, lesson_id) index.
+        // Returns the lesson ids deleted – empty when none are left.
+        public java.util.List<Integer> deleteBatchForLearner(ShardRing.Shard shard,
+                                                             int learnerId, long afterLessonId,
+                                                             int limit) throws SQLException {
+            String select = "SELECT lesson_id FROM progress WHERE learner_id=? " +
+                    "AND lesson_id > ? ORDER BY lesson_id LIMIT ?";
+            String delete = "DELETE FROM progress WHERE learner_id=? " +
+                    "AND lesson_id > ? AND lesson_id <= ?";
+            try (Connection conn = ProgressShards.connection(shard)) {
+                return deleteKeyBatch(conn, select, delete, learnerId, afterLessonId, limit);
+            }
+        }
+
+        // Scatter-gather: every shard aggregates its own rows in parallel,
+        // then the partial counts are merged.
+        public Map<Integer, LessonProgressStats> findLessonStats(
+                java.util.List<Integer> lessonIds) throws SQLException {
+            Map<Integer, LessonProgressStats> merged =
+                    new TreeMap<Integer, LessonProgressStats>();
+            if (lessonIds.isEmpty()) {
+                return merged;
+            }
+            java.util.List<Future<java.util.List<LessonProgressStats>>> parts =
+                    new ArrayList<Future<java.util.List<LessonProgressStats>>>();
+            for (ShardRing.Shard shard : ProgressShards.ring().getShards()) {
+                parts.add(Execution.submit(() -> findLessonStats(shard, lessonIds)));
+            }
+            for (Future<java.util.List<LessonProgressStats>> part : parts) {
+                try {
+                    for (LessonProgressStats st : part.get()) {
+                        LessonProgressStats existing = merged.get(st.getLessonId());
+                        merged.put(st.getLessonId(),
+                                existing == null ? st : existing.merge(st));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while gathering progress", e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof SQLException) {
+                        throw (SQLException) e.getCause();
+                    }
+                    throw new SQLException("Error gathering progress", e.getCause());
+                }
+            }
+            return merged;
+        }
+
+        private java.util.List<LessonProgressStats> findLessonStats(
+                ShardRing.Shard shard, java.util.List<Integer> lessonIds) throws SQLException {
+            StringBuilder in = new StringBuilder();
+            for (int i = 0; i < lessonIds.size(); i++) {
+                in.append(i == 0 ? "?" : ",?");
+            }
+            String sql = "SELECT lesson_id, COUNT(*) AS learners, " +
+                    "SUM(completion_percent) AS total_percent, " +
+                    "SUM(completion_percent >= 100) AS completed " +
+                    "FROM progress WHERE lesson_id IN (" + in + ") GROUP BY lesson_id";
+            java.util.List<LessonProgressStats> list = new ArrayList<LessonProgressStats>();
+            try (Connection conn = ProgressShards.connection(shard);
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                for (int i = 0; i < lessonIds.size(); i++) {
+                    ps.setInt(i + 1, lessonIds.get(i));
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        list.add(new LessonProgressStats(
+                                rs.getInt("lesson_id"),
+                                rs.getLong("learners"),
+                                rs.getLong("total_percent"),
+                                rs.getLong("completed")));
+                    }
+                }
+            }
+            return list;
+        }
+
+        // select the next keys, then delete up to the last one
+        static java.util.List<Integer> deleteKeyBatch(Connection conn, String select,
+                                                      String delete, int ownerId,
+                                                      long afterKey, int limit)
+                throws SQLException {
+            java.util.List<Integer> keys = new ArrayList<Integer>();
+            try (PreparedStatement ps = conn.prepareStatement(select)) {
+                ps.setInt(1, ownerId);
+                ps.setLong(2, afterKey);
+                ps.setInt(3, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        keys.add(rs.getInt(1));
+                    }
+                }
+            }
+            if (keys.isEmpty()) {
+                return keys;
+            }
+            try (PreparedStatement ps = conn.prepareStatement(delete)) {
+                ps.setInt(1, ownerId);
+                ps.setLong(2, afterKey);
+                ps.setInt(3, keys.get(keys.size() - 1));
+                ps.executeUpdate();
+            }
+            return keys;
+        }
+    }
+
+    public static class ProgressHistoryDAO {
+
+        public Map<HistoryResolution, ProgressSeries> find(int learnerId, int lessonId)
+                throws SQLException {
+            Map<HistoryResolution, ProgressSeries> map =
+                    new EnumMap<HistoryResolution, ProgressSeries>(HistoryResolution.class);
+            String sql = "SELECT resolution, base_time, sample_count, samples " +
+                    "FROM progress_history WHERE learner_id=? AND lesson_id=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, learnerId);
+                ps.setInt(2, lessonId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        HistoryResolution res =
+                                HistoryResolution.valueOf(rs.getString("resolution"));
+                        map.put(res, ProgressSeries.decode(res,
+                                rs.getLong("base_time"),
+                                rs.getInt("sample_count"),
+                                rs.getBytes("samples")));
+                    }
+                }
+            }
+            return map;
+        }
+
+        public void save(int learnerId, int lessonId,
+                         Collection<ProgressSeries> seriesList) throws SQLException {
+            String sql =
+                    "INSERT INTO progress_history(learner_id, lesson_id, resolution, " +
+                    "base_time, sample_count, samples) VALUES(?,?,?,?,?,?) " +
+                    "ON DUPLICATE KEY UPDATE base_time = VALUES(base_time), " +
+                    "sample_count = VALUES(sample_count), samples = VALUES(samples)";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                for (ProgressSeries series : seriesList) {
+                    ps.setInt(1, learnerId);
+                    ps.setInt(2, lessonId);
+                    ps.setString(3, series.getResolution().name());
+                    ps.setLong(4, series.getBaseTime());
+                    ps.setInt(5, series.getCount());
+                    ps.setBytes(6, series.toBytes());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+
+        // One purge batch of the learner's history rows (all tiers of the
+        // next lessons). Returns the lesson ids deleted.
+        public java.util.List<Integer> deleteBatchForLearner(int learnerId, long afterLessonId,
+                                                             int limit) throws SQLException {
+            String select = "SELECT DISTINCT lesson_id FROM progress_history " +
+                    "WHERE learner_id=? AND lesson_id > ? ORDER BY lesson_id LIMIT ?";
+            String delete = "DELETE FROM progress_history WHERE learner_id=? " +
+                    "AND lesson_id > ? AND lesson_id <= ?";
+            try (Connection conn = DBConnectionManager.getConnection()) {
+                return ProgressDAO.deleteKeyBatch(conn, select, delete,
+                        learnerId, afterLessonId, limit);
+            }
+        }
+    }
+
+    // Learner dashboard read model: each lesson with this learner's
+    // progress, one keyset page per query. The LEFT JOIN walks lessons by
+    // primary key and probes uq_progress (learner_id, lesson_id) once per
+    // lesson. When the learner's progress lives on another shard the join
+    // is impossible, so the page is read with one query per database.
+    public static class LearnerDashboardDAO {
+
+        public DashboardPage findPage(int learnerId, int afterLessonId, int pageSize)
+                throws SQLException {
+            ShardRing.Shard shard = ProgressShards.ring().shardFor(learnerId);
+            java.util.List<LearnerLessonRow> rows = ProgressShards.isMain(shard)
+                    ? findJoined(learnerId, afterLessonId, pageSize + 1)
+                    : findSplit(shard, learnerId, afterLessonId, pageSize + 1);
+            boolean hasMore = rows.size() > pageSize;
+            if (hasMore) {
+                rows = new ArrayList<LearnerLessonRow>(rows.subList(0, pageSize));
+            }
+            return new DashboardPage(rows, hasMore);
+        }
+
+        private java.util.List<LearnerLessonRow> findJoined(int learnerId, int afterLessonId,
+                                                            int limit) throws SQLException {
+            String sql = "SELECT l.id, l.title, l.instructor_id, " +
+                    "p.completion_percent, p.last_updated " +
+                    "FROM lessons l LEFT JOIN progress p " +
+                    "ON p.learner_id = ? AND p.lesson_id = l.id " +
+                    "WHERE l.id > ? ORDER BY l.id LIMIT ?";
+            java.util.List<LearnerLessonRow> rows = new ArrayList<LearnerLessonRow>();
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, learnerId);
+                ps.setInt(2, afterLessonId);
+                ps.setInt(3, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int percent = rs.getInt("completion_percent");
+                        boolean started = !rs.wasNull();
+                        Timestamp ts = rs.getTimestamp("last_updated");
+                        rows.add(new LearnerLessonRow(
+                                rs.getInt("id"),
+                                rs.getString("title"),
+                                rs.getInt("instructor_id"),
+                                started ? percent : null,
+                                ts == null ? null : ts.toLocalDateTime()));
+                    }
+                }
+            }
+            return rows;
+        }
+
+        // sharded progress: lesson page from the main DB, then the
+        // learner's rows for that lesson-id range from their shard
+        private java.util.List<LearnerLessonRow> findSplit(ShardRing.Shard shard, int learnerId,
+                                                           int afterLessonId, int limit)
+                throws SQLException {
+            String lessonSql = "SELECT id, title, instructor_id FROM lessons " +
+                    "WHERE id > ? ORDER BY id LIMIT ?";
+            String progressSql = "SELECT id, lesson_id, completion_percent, last_updated " +
+                    "FROM progress WHERE learner_id = ? AND lesson_id BETWEEN ? AND ?";
+
+            java.util.List<Lesson> lessons = new ArrayList<Lesson>();
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(lessonSql)) {
+
+                ps.setInt(1, afterLessonId);
+                ps.setInt(2, limit);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        lessons.add(new Lesson(rs.getInt("id"), rs.getString("title"),
+                                null, rs.getInt("instructor_id")));
+                    }
+                }
+            }
+            if (lessons.isEmpty()) {
+                return new ArrayList<LearnerLessonRow>();
+            }
+
+            java.util.List<ProgressRecord> progress = new ArrayList<ProgressRecord>();
+            try (Connection conn = ProgressShards.connection(shard);
+                 PreparedStatement ps = conn.prepareStatement(progressSql)) {
+
+                ps.setInt(1, learnerId);
+                ps.setInt(2, lessons.get(0).getId());
+                ps.setInt(3, lessons.get(lessons.size() - 1).getId());
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Timestamp ts = rs.getTimestamp("last_updated");
+                        progress.add(new ProgressRecord(
+                                rs.getInt("id"),
+                                learnerId,
+                                rs.getInt("lesson_id"),
+                                rs.getInt("completion_percent"),
+                                ts == null ? null : ts.toLocalDateTime()));
+                    }
+                }
+            }
+            return LearnerLessonRow.combine(lessons, progress);
+        }
+    }
+
+    // Purge state lives in user_purge_jobs so an interrupted purge resumes.
+    public static class UserPurgeJobDAO {
+
+        // Existing state wins, so calling this again resumes the same job.
+        public PurgeStatus begin(int userId, Integer reassignTo) throws SQLException {
+            String sql = "INSERT INTO user_purge_jobs(user_id, reassign_to, phase) " +
+                    "VALUES(?,?,?) ON DUPLICATE KEY UPDATE user_id = user_id";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, userId);
+                if (reassignTo == null) {
+                    ps.setNull(2, Types.INTEGER);
+                } else {
+                    ps.setInt(2, reassignTo);
+                }
+                ps.setString(3, PurgePhase.PROGRESS.name());
+                ps.executeUpdate();
+            }
+            return find(userId);
+        }
+
+        public PurgeStatus find(int userId) throws SQLException {
+            String sql = "SELECT * FROM user_purge_jobs WHERE user_id=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setInt(1, userId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    return rs.next() ? toStatus(rs) : null;
+                }
+            }
+        }
+
+        public java.util.List<PurgeStatus> findUnfinished() throws SQLException {
+            java.util.List<PurgeStatus> list = new ArrayList<PurgeStatus>();
+            String sql = "SELECT * FROM user_purge_jobs WHERE phase <> 'DONE'";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery(sql)) {
+
+                while (rs.next()) {
+                    list.add(toStatus(rs));
+                }
+            }
+            return list;
+        }
+
+        public void update(PurgeStatus status) throws SQLException {
+            String sql = "UPDATE user_purge_jobs SET phase=?, shard=?, last_key=?, " +
+                    "rows_affected=?, sweeps=?, error=? WHERE user_id=?";
+            try (Connection conn = DBConnectionManager.getConnection();
+                 PreparedStatement ps = conn.prepareStatement(sql)) {
+
+                ps.setString(1, status.getPhase().name());
+                ps.setInt(2, status.getShard());
+                ps.setLong(3, status.getLastKey());
+                ps.setLong(4, status.getRowsAffected());
+                ps.setInt(5, status.getSweeps());
+                ps.setString(6, status.getError());
+                ps.setInt(7, status.getUserId());
+                ps.executeUpdate();
+            }
+        }
+
+        private static PurgeStatus toStatus(ResultSet rs) throws SQLException {
+            int reassignTo = rs.getInt("reassign_to");
+            boolean archive = rs.wasNull();
+            return new PurgeStatus(
+                    rs.getInt("user_id"),
+                    archive ? null : reassignTo,
+                    PurgePhase.valueOf(rs.getString("phase")),
+                    rs.getInt("shard"),
+                    rs.getLong("last_key"),
+                    rs.getLong("rows_affected"),
+                    rs.getInt("sweeps"),
+                    rs.getString("error"));
+        }
+    }
+
+    // ============================
+    //        SERVICE LAYER
+    // ============================
+
+    public static class AuthService {
+        private final UserDAO userDAO = new UserDAO();
+
+        public User login(String email, String password) throws Exception {
+            User user = userDAO.findByEmailAndPassword(email, password);
+            if (user == null) {
+                throw new Exception("Invalid email or password");
+            }
+            return user;
+        }
+    }
+
+    // In-memory prefix index over user email and name for admin search.
+    // One ConcurrentSkipListMap per role, keyed "token\0id": a prefix
+    // lookup is a subMap range scan that stops at the result limit, and
+    // UserDAO.save/delete update it concurrently with readers.
+    public static class UserSearchIndex {
+
+        // One generation of the index. A rebuild fills a fresh one and
+        // swaps it in, so searches never see a half-loaded index.
+        private static class Index {
+            final Map<Role, ConcurrentSkipListMap<String, UserSummary>> byRole =
+                    new EnumMap<Role, ConcurrentSkipListMap<String, UserSummary>>(Role.class);
+            final Map<Integer, UserSummary> byId = new ConcurrentHashMap<Integer, UserSummary>();
+            // ids deleted while this generation streams the table
+            final Set<Integer> removed = ConcurrentHashMap.newKeySet();
+
+            Index() {
+                for (Role r : Role.values()) {
+                    byRole.put(r, new ConcurrentSkipListMap<String, UserSummary>());
+                }
+            }
+
+            void add(UserSummary user) {
+                UserSummary previous = byId.put(user.getId(), user);
+                if (previous != null) {
+                    unindex(previous);
+                }
+                Map<String, UserSummary> index = byRole.get(user.getRole());
+                for (String token : tokens(user)) {
+                    index.put(token + '\0' + user.getId(), user);
+                }
+            }
+
+            void remove(int id) {
+                UserSummary previous = byId.remove(id);
+                if (previous != null) {
+                    unindex(previous);
+                }
+            }
+
+            private void unindex(UserSummary user) {
+                Map<String, UserSummary> index = byRole.get(user.getRole());
+                for (String token : tokens(user)) {
+                    index.remove(token + '\0' + user.getId(), user);
+                }
+            }
+        }
+
+        private static volatile Index current = new Index();
+        // generation being built; add/remove are applied to it as well
+        private static Index pending;
+        private static volatile boolean loaded;
+
+        private static final ReentrantLock buildLock = new ReentrantLock();
+        // guards current/pending for writers; searches only read current
+        private static final ReentrantLock writeLock = new ReentrantLock();
+
+        private UserSearchIndex() {}
+
+        public static boolean isLoaded() {
+            return loaded;
+        }
+
+        public static int size() {
+            return current.byId.size();
+        }
+
+        public static void rebuild(UserDAO userDAO) throws SQLException {
+            buildLock.lock();
+            try {
+                Index fresh = new Index();
+                writeLock.lock();
+                try {
+                    pending = fresh;
+                } finally {
+                    writeLock.unlock();
+                }
+                boolean complete = false;
+                try {
+                    userDAO.forEachSummary(u -> {
+                        // under writeLock so a concurrent remove() cannot slip
+                        // between the check and the add; an entry already
+                        // present came from a live add() and is newer
+                        writeLock.lock();
+                        try {
+                            if (!fresh.removed.contains(u.getId())
+                                    && !fresh.byId.containsKey(u.getId())) {
+                                fresh.add(u);
+                            }
+                        } finally {
+                            writeLock.unlock();
+                        }
+                    });
+                    complete = true;
+                } finally {
+                    writeLock.lock();
+                    try {
+                        pending = null;
+                        if (complete) {
+                            // one section, so no add/remove lands in between
+                            fresh.removed.clear();
+                            current = fresh;
+                        }
+                    } finally {
+                        writeLock.unlock();
+                    }
+                }
+                loaded = true;
+            } finally {
+                buildLock.unlock();
+            }
+        }
+
+        public static void add(UserSummary user) {
+            writeLock.lock();
+            try {
+                current.add(user);
+                if (pending != null) {
+                    pending.add(user);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        public static void remove(int id) {
+            writeLock.lock();
+            try {
+                current.remove(id);
+                if (pending != null) {
+                    pending.removed.add(id);
+                    pending.remove(id);
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        // role == null searches all roles; results are ordered by matched token
+        public static java.util.List<UserSummary> search(String prefix, Role role, int limit) {
+            String p = normalize(prefix);
+            Index index = current;
+            java.util.List<Iterator<Map.Entry<String, UserSummary>>> ranges =
+                    new ArrayList<Iterator<Map.Entry<String, UserSummary>>>();
+            for (Role r : Role.values()) {
+                if (role == null || role == r) {
+                    ranges.add(range(index.byRole.get(r), p).entrySet().iterator());
+                }
+            }
+
+            // k-way merge of the per-role ranges, stopping at the limit
+            java.util.List<Map.Entry<String, UserSummary>> heads =
+                    new ArrayList<Map.Entry<String, UserSummary>>();
+            for (Iterator<Map.Entry<String, UserSummary>> it : ranges) {
+                heads.add(it.hasNext() ? it.next() : null);
+            }
+            Map<Integer, UserSummary> results = new LinkedHashMap<Integer, UserSummary>();
+            while (results.size() < limit) {
+                int best = -1;
+                for (int i = 0; i < heads.size(); i++) {
+                    Map.Entry<String, UserSummary> h = heads.get(i);
+                    if (h != null && (best < 0
+                            || h.getKey().compareTo(heads.get(best).getKey()) < 0)) {
+                        best = i;
+                    }
+                }
+                if (best < 0) {
+                    break;
+                }
+                UserSummary u = heads.get(best).getValue();
+                results.putIfAbsent(u.getId(), u);
+                Iterator<Map.Entry<String, UserSummary>> it = ranges.get(best);
+                heads.set(best, it.hasNext() ? it.next() : null);
+            }
+            return new ArrayList<UserSummary>(results.values());
+        }
+
+        private static java.util.NavigableMap<String, UserSummary> range(
+                java.util.NavigableMap<String, UserSummary> index, String prefix) {
+            return index.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+        }
+
+        // email, full name, and each later word of the name ("smith")
+        private static Set<String> tokens(UserSummary user) {
+            Set<String> tokens = new LinkedHashSet<String>();
+            String email = normalize(user.getEmail());
+            if (!email.isEmpty()) {
+                tokens.add(email);
+            }
+            String name = normalize(user.getName());
+            if (!name.isEmpty()) {
+                tokens.add(name);
+                String[] words = name.split("\\s+");
+                for (int i = 1; i < words.length; i++) {
+                    tokens.add(words[i]);
+                }
+            }
+            return tokens;
+        }
+
+        private static String normalize(String s) {
+            return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    public static class LessonService {
+        private final LessonDAO lessonDAO = new LessonDAO();
+
+        // Collections & Generics – cache for lessons
+        private final Map<Integer, Lesson> lessonCache =
+                new HashMap<Integer, Lesson>();
+
+        public java.util.List<Lesson> getAllLessons() throws SQLException {
+            java.util.List<Lesson> lessons = lessonDAO.findAll();
+            lessonCache.clear();
+            for (Lesson l : lessons) {
+                lessonCache.put(l.getId(), l);
+            }
+            return lessons;
+        }
+
+        public Lesson getLessonById(int id) {
+            return lessonCache.get(id);
+        }
+
+        public void createLesson(String title, String content, int instructorId)
+                throws SQLException {
+            if (content != null && content.length() > LessonDocument.SEGMENT_CHARS) {
+                lessonDAO.saveSegmented(new Lesson(0, title, null, instructorId),
+                        LessonDocument.segments(content));
+            } else {
+                lessonDAO.save(new Lesson(0, title, content, instructorId));
+            }
+            LessonCatalog.invalidate();
+        }
+
+        // From the editor's text document: a large body is copied out one
+        // segment at a time instead of as one String.
+        public void createLesson(String title, javax.swing.text.Document content,
+                                 int instructorId) throws SQLException {
+            if (content.getLength() > LessonDocument.SEGMENT_CHARS) {
+                lessonDAO.saveSegmented(new Lesson(0, title, null, instructorId),
+                        LessonDocument.segments(content));
+                LessonCatalog.invalidate();
+            } else {
+                createLesson(title, LessonDocument.text(content, 0, content.getLength()),
+                        instructorId);
+            }
+        }
+
+        public LessonDocument openDocument(int lessonId) throws SQLException {
+            return LessonDocument.open(lessonDAO, lessonId);
+        }
+    }
+
+    // Chunked lesson body for large lessons. Segments are fetched from
+    // lesson_segments on demand and kept in a small LRU, so memory is
+    // bounded by the cache plus the segments actually edited – not by
+    // the lesson size. save() writes back only the edited segments.
+    public static class LessonDocument {
+        public static final int SEGMENT_CHARS = 16 * 1024;
+        private static final int CACHED_SEGMENTS = 8;
+
+        private final LessonDAO lessonDAO;
+        private final int lessonId;
+        private int segmentCount;
+
+        private final Map<Integer, String> cache =
+                new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+                        return size() > CACHED_SEGMENTS;
+                    }
+                };
+        private final Map<Integer, String> dirty = new TreeMap<Integer, String>();
+
+        private LessonDocument(LessonDAO lessonDAO, int lessonId, int segmentCount) {
+            this.lessonDAO = lessonDAO;
+            this.lessonId = lessonId;
+            this.segmentCount = segmentCount;
+        }
+
+        // Lessons created before segments existed are split on first open.
+        public static LessonDocument open(LessonDAO lessonDAO, int lessonId)
+                throws SQLException {
+            int count = lessonDAO.countSegments(lessonId);
+            if (count == 0) {
+                count = lessonDAO.segmentLegacyContent(lessonId);
+            }
+            // a lesson without any body starts as one empty segment
+            return new LessonDocument(lessonDAO, lessonId, Math.max(1, count));
+        }
+
+        public int getLessonId() { return lessonId; }
+        public int getSegmentCount() { return segmentCount; }
+        public boolean isDirty() { return !dirty.isEmpty(); }
+
+        public String getSegment(int seq) throws SQLException {
+            String text = dirty.get(seq);
+            if (text == null) {
+                text = cache.get(seq);
+            }
+            if (text == null) {
+                text = lessonDAO.findSegment(lessonId, seq);
+                cache.put(seq, text);
+            }
+            return text;
+        }
+
+        public void setSegment(int seq, String text) {
+            if (seq < 0 || seq >= segmentCount) {
+                throw new IndexOutOfBoundsException("No segment " + seq);
+            }
+            cache.remove(seq);
+            dirty.put(seq, text);
+        }
+
+        public int appendSegment() {
+            int seq = segmentCount++;
+            dirty.put(seq, "");
+            return seq;
+        }
+
+        public void save() throws SQLException {
+            if (dirty.isEmpty()) {
+                return;
+            }
+            lessonDAO.saveSegments(lessonId, dirty);
+            dirty.clear();
+        }
+
+        public static Iterator<String> segments(CharSequence content) {
+            return segments(content.length(),
+                    (start, end) -> content.subSequence(start, end).toString());
+        }
+
+        public static Iterator<String> segments(javax.swing.text.Document doc) {
+            return segments(doc.getLength(), (start, end) -> text(doc, start, end));
+        }
+
+        // Segments read lazily from a character stream.
+        public static Iterator<String> segments(Reader in) {
+            return new Iterator<String>() {
+                private String next = read();
+
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                public String next() {
+                    if (next == null) {
+                        throw new NoSuchElementException();
+                    }
+                    String seg = next;
+                    next = read();
+                    return seg;
+                }
+
+                private String read() {
+                    try {
+                        return readSegment(in);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            };
+        }
+
+        static String text(javax.swing.text.Document doc, int start, int end) {
+            try {
+                return doc.getText(start, end - start);
+            } catch (javax.swing.text.BadLocationException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Cuts [0, length) into SEGMENT_CHARS pieces, extracting one at a time.
+        private static Iterator<String> segments(int length,
+                                                 java.util.function.BiFunction<Integer, Integer, String> text) {
+            return new Iterator<String>() {
+                private int start;
+
+                public boolean hasNext() {
+                    return start < length;
+                }
+
+                public String next() {
+                    if (start >= length) {
+                        throw new NoSuchElementException();
+                    }
+                    int end = Math.min(length, start + SEGMENT_CHARS);
+                    String seg = text.apply(start, end);
+                    // never cut a surrogate pair in half
+                    if (end < length && Character.isHighSurrogate(seg.charAt(seg.length() - 1))) {
+                        seg = text.apply(start, ++end);
+                    }
+                    start = end;
+                    return seg;
+                }
+            };
+        }
+
+        // Next segment from a character stream, or null at the end.
+        static String readSegment(Reader in) throws IOException {
+            char[] buf = new char[SEGMENT_CHARS + 1];
+            int n = 0;
+            while (n < SEGMENT_CHARS) {
+                int r = in.read(buf, n, SEGMENT_CHARS - n);
+                if (r < 0) {
+                    break;
+                }
+                n += r;
+            }
+            if (n == 0) {
+                return null;
+            }
+            if (n == SEGMENT_CHARS && Character.isHighSurrogate(buf[n - 1])) {
+                int c = in.read();
+                if (c >= 0) {
+                    buf[n++] = (char) c;
+                }
+            }
+            return new String(buf, 0, n);
+        }
+    }
+
+    // Precomputed, serialized lesson catalog shared by HTTP clients.
+    // The JSON (and its gzip form) is built once per catalog version;
+    // LessonService.createLesson bumps the version, so unchanged
+    // catalogs are served from memory without touching the DB.
+    public static class LessonCatalog {
+        private static final LessonDAO lessonDAO = new LessonDAO();
+        // how long a catalog_version read is trusted (-Dcodelingo.catalog.checkMillis)
+        private static final long CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(
+                Long.getLong("codelingo.catalog.checkMillis", 1000L));
+
+        private static volatile Snapshot current;
+        private static volatile long knownVersion;
+        private static volatile long checkedAt;
+        private static volatile boolean recheck = true;
+
+        private LessonCatalog() {}
+
+        public static class Snapshot {
+            private final long version;
+            private final String etag;
+            private final byte[] json;
+            private final byte[] gzip;
+
+            Snapshot(long version, String etag, byte[] json, byte[] gzip) {
+                this.version = version;
+                this.etag = etag;
+                this.json = json;
+                this.gzip = gzip;
+            }
+
+            public long getVersion() { return version; }
+            public String getETag() { return etag; }
+            public byte[] getJson() { return json; }
+            public byte[] getGzip() { return gzip; }
+
+            // each representation has its own tag
+            public String getGzipETag() {
+                return etag.substring(0, etag.length() - 1) + "-gz\"";
+            }
+        }
+
+        // This process changed the catalog – check catalog_version on the next call.
+        public static void invalidate() {
+            recheck = true;
+        }
+
+        // Changes made by other processes (lessons are created from the
+        // Swing app, the servlet runs in a container) show up through the
+        // catalog_version row, read at most once per check interval.
+        public static Snapshot snapshot() throws SQLException {
+            long v = catalogVersion();
+            Snapshot s = current;
+            if (s != null && s.version >= v) {
+                return s;
+            }
+            synchronized (LessonCatalog.class) {
+                // the version was read before the query: a concurrent
+                // change forces one more rebuild, never a stale hit
+                s = current;
+                if (s == null || s.version < v) {
+                    s = build(v, lessonDAO.findCatalog());
+                    current = s;
+                }
+                return s;
+            }
+        }
+
+        private static long catalogVersion() throws SQLException {
+            long now = System.nanoTime();
+            if (!recheck && now - checkedAt < CHECK_INTERVAL_NANOS) {
+                return knownVersion;
+            }
+            recheck = false; // an invalidate() during the read forces another one
+            long v = lessonDAO.findCatalogVersion();
+            knownVersion = v;
+            checkedAt = now;
+            return v;
+        }
+
+        private static Snapshot build(long v, java.util.List<Lesson> lessons) {
+            StringBuilder sb = new StringBuilder();
+            sb.append('[');
+            for (int i = 0; i < lessons.size(); i++) {
+                Lesson l = lessons.get(i);
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append("{\"id\":").append(l.getId())
+                  .append(",\"title\":");
+                appendJsonString(sb, l.getTitle());
+                sb.append(",\"instructorId\":").append(l.getInstructorId())
+                  .append('}');
+            }
+            sb.append(']');
+
+            byte[] json = sb.toString().getBytes(StandardCharsets.UTF_8);
+            return new Snapshot(v, etagFor(json), json, gzip(json));
+        }
+
+        private static void appendJsonString(StringBuilder sb, String value) {
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"':  sb.append("\\\""); break;
+                    case '\\': sb.append("\\\\"); break;
+                    case '\n': sb.append("\\n"); break;
+                    case '\r': sb.append("\\r"); break;
+                    case '\t': sb.append("\\t"); break;
+                    default:
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                }
+            }
+            sb.append('"');
+        }
+
+        // content hash, so the tag survives restarts when nothing changed
+        private static String etagFor(byte[] json) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+                StringBuilder sb = new StringBuilder("\"");
+                for (int i = 0; i < 16; i++) {
+                    sb.append(String.format("%02x", digest[i]));
+                }
+                return sb.append('"').toString();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream(data.length / 4 + 64);
+            try (GZIPOutputStream gz = new GZIPOutputStream(bos)) {
+                gz.write(data);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            return bos.toByteArray();
+        }
+    }
+
+    public static class ProgressService {
+        private final ProgressDAO progressDAO = new ProgressDAO();
+        private final LearnerDashboardDAO dashboardDAO = new LearnerDashboardDAO();
+
+        // lock instead of synchronized – a virtual thread blocked on JDBC
+        // inside a monitor would pin its carrier thread
+        private final ReentrantLock updateLock = new ReentrantLock();
+
+        // safe for multithreaded access
+        public void updateProgress(int learnerId, int lessonId,
+                                   int percent) throws SQLException {
+            updateLock.lock();
+            try {
+                progressDAO.saveOrUpdateProgress(learnerId, lessonId, percent);
+                ProgressHistory.record(learnerId, lessonId, percent);
+            } finally {
+                updateLock.unlock();
+            }
+        }
+
+        public Map<Integer, LessonProgressStats> getLessonStats(java.util.List<Integer> lessonIds)
+                throws SQLException {
+            return progressDAO.findLessonStats(lessonIds);
+        }
+
+        public java.util.List<ProgressPoint> getProgressHistory(int learnerId, int lessonId)
+                throws SQLException {
+            return ProgressHistory.getHistory(learnerId, lessonId);
+        }
+
+        public java.util.List<ProgressRecord> getProgressForLearner(int learnerId)
+                throws SQLException {
+            return progressDAO.findByLearner(learnerId);
+        }
+
+        // lessons with this learner's progress, one page per round trip
+        public DashboardPage getDashboardPage(int learnerId, int afterLessonId, int pageSize)
+                throws SQLException {
+            return dashboardDAO.findPage(learnerId, afterLessonId, pageSize);
+        }
+    }
+
+    // Learning-curve history. Only changes are appended (an autosave tick
+    // with the same percent costs nothing); older samples are folded into
+    // per-minute, then per-day tiers. A history query reads at most three
+    // rows by primary key instead of scanning raw events.
+    public static class ProgressHistory {
+        private static final int MAX_CACHED = 10_000;
+        private static final int STRIPES = 64;
+
+        private static final ProgressHistoryDAO historyDAO = new ProgressHistoryDAO();
+
+        // per-key lock stripes; ReentrantLock so JDBC inside does not pin
+        private static final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+        static {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes[i] = new ReentrantLock();
+            }
+        }
+
+        // recently used series, LRU
+        private static final ReentrantLock cacheLock = new ReentrantLock();
+        private static final Map<Long, Map<HistoryResolution, ProgressSeries>> cache =
+                new LinkedHashMap<Long, Map<HistoryResolution, ProgressSeries>>(256, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<Long, Map<HistoryResolution, ProgressSeries>> eldest) {
+                        return size() > MAX_CACHED;
+                    }
+                };
+
+        private ProgressHistory() {}
+
+        public static void record(int learnerId, int lessonId, int percent)
+                throws SQLException {
+            record(learnerId, lessonId, percent, System.currentTimeMillis() / 1000);
+        }
+
+        public static void record(int learnerId, int lessonId, int percent,
+                                  long epochSecond) throws SQLException {
+            long key = key(learnerId, lessonId);
+            ReentrantLock lock = stripeFor(key);
+            lock.lock();
+            try {
+                Map<HistoryResolution, ProgressSeries> tiers = load(key, learnerId, lessonId);
+                ProgressSeries raw = tiers.get(HistoryResolution.RAW);
+                if (latestPercent(tiers) == percent) {
+                    return;
+                }
+                raw.append(epochSecond, percent);
+
+                java.util.List<ProgressSeries> changed = new ArrayList<ProgressSeries>();
+                changed.add(raw);
+                compact(tiers, epochSecond, changed);
+                try {
+                    historyDAO.save(learnerId, lessonId, changed);
+                } catch (SQLException e) {
+                    // drop the unsaved tiers; the DB stays the source of truth
+                    cacheLock.lock();
+                    try {
+                        cache.remove(key);
+                    } finally {
+                        cacheLock.unlock();
+                    }
+                    throw e;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Oldest first: DAY, then MINUTE, then RAW – the tiers never overlap.
+        public static java.util.List<ProgressPoint> getHistory(int learnerId, int lessonId)
+                throws SQLException {
+            long key = key(learnerId, lessonId);
+            ReentrantLock lock = stripeFor(key);
+            lock.lock();
+            try {
+                Map<HistoryResolution, ProgressSeries> tiers = load(key, learnerId, lessonId);
+                java.util.List<ProgressPoint> list = new ArrayList<ProgressPoint>();
+                list.addAll(tiers.get(HistoryResolution.DAY).points());
+                list.addAll(tiers.get(HistoryResolution.MINUTE).points());
+                list.addAll(tiers.get(HistoryResolution.RAW).points());
+                return list;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public static void evict(int learnerId) {
+            cacheLock.lock();
+            try {
+                cache.keySet().removeIf(k -> (int) (k >>> 32) == learnerId);
+            } finally {
+                cacheLock.unlock();
+            }
+        }
+
+        // Cutoffs are aligned to the coarser bucket so one minute (or day)
+        // never ends up split across two compactions.
+        private static void compact(Map<HistoryResolution, ProgressSeries> tiers,
+                                    long now, java.util.List<ProgressSeries> changed) {
+            HistoryResolution[] order = HistoryResolution.values();
+            for (int i = 0; i < order.length - 1; i++) {
+                ProgressSeries from = tiers.get(order[i]);
+                ProgressSeries to = tiers.get(order[i + 1]);
+                long size = to.getResolution().getBucketSeconds();
+                long cutoff = Math.floorDiv(
+                        now - from.getResolution().getRetentionSeconds(), size) * size;
+                if (from.drainInto(to, cutoff)) {
+                    if (!changed.contains(from)) {
+                        changed.add(from);
+                    }
+                    changed.add(to);
+                }
+            }
+        }
+
+        private static int latestPercent(Map<HistoryResolution, ProgressSeries> tiers) {
+            for (HistoryResolution res : new HistoryResolution[]{
+                    HistoryResolution.RAW, HistoryResolution.MINUTE, HistoryResolution.DAY}) {
+                ProgressSeries series = tiers.get(res);
+                if (!series.isEmpty()) {
+                    return series.getLastPercent();
+                }
+            }
+            return -1;
+        }
+
+        private static Map<HistoryResolution, ProgressSeries> load(
+                long key, int learnerId, int lessonId) throws SQLException {
+            cacheLock.lock();
+            try {
+                Map<HistoryResolution, ProgressSeries> tiers = cache.get(key);
+                if (tiers != null) {
+                    return tiers;
+                }
+            } finally {
+                cacheLock.unlock();
+            }
+            Map<HistoryResolution, ProgressSeries> tiers = historyDAO.find(learnerId, lessonId);
+            for (HistoryResolution res : HistoryResolution.values()) {
+                if (!tiers.containsKey(res)) {
+                    tiers.put(res, new ProgressSeries(res));
+                }
+            }
+            cacheLock.lock();
+            try {
+                cache.put(key, tiers);
+            } finally {
+                cacheLock.unlock();
+            }
+            return tiers;
+        }
+
+        private static long key(int learnerId, int lessonId) {
+            return ((long) learnerId << 32) | (lessonId & 0xFFFFFFFFL);
+        }
+
+        private static ReentrantLock stripeFor(long key) {
+            return stripes[(Long.hashCode(key) & 0x7FFFFFFF) % STRIPES];
+        }
+    }
+
+    // Versioned local copy of the lesson catalog and one learner's
+    // progress, kept in a small binary file so the dashboard can render
+    // before MySQL answers. Layout (big-endian):
+    //   magic, format, payloadLength, CRC32 of payload,
+    //   payload = version, savedAt,
+    //     lessonCount, {id, instructorId, titleLen, title UTF-8}*,
+    //     progressCount, {id, lessonId, percent, lastUpdated millis or -1}*
+    // The file is read and written through heap buffers, never mapped, so
+    // no mapping keeps it locked while the next version is moved in.
+    public static class LocalSnapshot {
+        private static final int MAGIC = 0x434C534E; // "CLSN"
+        private static final int FORMAT = 2;
+        private static final int HEADER = 4 + 4 + 4 + 8;
+        // anything larger is not a snapshot this class wrote
+        private static final long MAX_SIZE = 16L * 1024 * 1024;
+
+        private final long version;
+        private final long savedAt;
+        private final java.util.List<Lesson> lessons;
+        private final java.util.List<ProgressRecord> progress;
+
+        private LocalSnapshot(long version, long savedAt,
+                              java.util.List<Lesson> lessons,
+                              java.util.List<ProgressRecord> progress) {
+            this.version = version;
+            this.savedAt = savedAt;
+            this.lessons = lessons;
+            this.progress = progress;
+        }
+
+        public long getVersion() { return version; }
+        public long getSavedAt() { return savedAt; }
+        public java.util.List<Lesson> getLessons() { return lessons; }
+        public java.util.List<ProgressRecord> getProgress() { return progress; }
+
+        // the dashboard's first page, as it was when saved
+        public java.util.List<LearnerLessonRow> getRows() {
+            return LearnerLessonRow.combine(lessons, progress);
+        }
+
+        public static Path pathFor(int learnerId) {
+            String dir = System.getProperty("codelingo.snapshot.dir",
+                    Paths.get(System.getProperty("user.home"), ".codelingo").toString());
+            return Paths.get(dir, "snapshot-" + learnerId + ".bin");
+        }
+
+        // null when there is no usable snapshot – the caller falls back to the DB
+        public static LocalSnapshot read(int learnerId) {
+            Path path = pathFor(learnerId);
+            if (!Files.isRegularFile(path)) {
+                return null;
+            }
+            try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = ch.size();
+                if (size < HEADER || size > MAX_SIZE) {
+                    return null;
+                }
+                ByteBuffer buf = ByteBuffer.allocate((int) size);
+                while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                    // keep reading
+                }
+                buf.flip();
+                if (buf.remaining() != size
+                        || buf.getInt() != MAGIC || buf.getInt() != FORMAT
+                        || buf.getInt() != size - HEADER) {
+                    return null;
+                }
+                long crc = buf.getLong();
+                CRC32 check = new CRC32();
+                check.update(buf.duplicate());
+                if (check.getValue() != crc) {
+                    return null; // torn or corrupted write
+                }
+                long version = buf.getLong();
+                long savedAt = buf.getLong();
+
+                int lessonCount = count(buf, 4 + 4 + 4);
+                java.util.List<Lesson> lessons = new ArrayList<Lesson>(lessonCount);
+                for (int i = 0; i < lessonCount; i++) {
+                    int id = buf.getInt();
+                    int instructorId = buf.getInt();
+                    byte[] title = new byte[count(buf, 1)];
+                    buf.get(title);
+                    lessons.add(new Lesson(id, new String(title, StandardCharsets.UTF_8),
+                            null, instructorId));
+                }
+
+                int progressCount = count(buf, 4 + 4 + 4 + 8);
+                java.util.List<ProgressRecord> progress =
+                        new ArrayList<ProgressRecord>(progressCount);
+                for (int i = 0; i < progressCount; i++) {
+                    int id = buf.getInt();
+                    int lessonId = buf.getInt();
+                    int percent = buf.getInt();
+                    long millis = buf.getLong();
+                    progress.add(new ProgressRecord(id, learnerId, lessonId, percent,
+                            millis < 0 ? null : LocalDateTime.ofInstant(
+                                    Instant.ofEpochMilli(millis), ZoneId.systemDefault())));
+                }
+                return new LocalSnapshot(version, savedAt, lessons, progress);
+            } catch (IOException | RuntimeException e) {
+                return null; // missing, truncated or foreign file
+            }
+        }
+
+        // Reads a count and checks that many entries of at least entrySize
+        // bytes can still follow, before anything is allocated for them.
+        private static int count(ByteBuffer buf, int entrySize) {
+            int n = buf.getInt();
+            if (n < 0 || (long) n * entrySize > buf.remaining()) {
+                throw new IllegalStateException("Bad snapshot count: " + n);
+            }
+            return n;
+        }
+
+        public static void write(int learnerId, long version,
+                                 java.util.List<LearnerLessonRow> rows) throws IOException {
+            java.util.List<Lesson> lessons = new ArrayList<Lesson>(rows.size());
+            java.util.List<ProgressRecord> progress = new ArrayList<ProgressRecord>();
+            for (LearnerLessonRow r : rows) {
+                lessons.add(new Lesson(r.getLessonId(), r.getTitle(), null, r.getInstructorId()));
+                if (r.getCompletionPercent() != null) {
+                    progress.add(new ProgressRecord(0, learnerId, r.getLessonId(),
+                            r.getCompletionPercent(), r.getLastUpdated()));
+                }
+            }
+            write(learnerId, version, lessons, progress);
+        }
+
+        // Written to a temp file, then moved into place, so a crash never
+        // leaves a half-written snapshot behind.
+        public static void write(int learnerId, long version,
+                                 java.util.List<Lesson> lessons,
+                                 java.util.List<ProgressRecord> progress) throws IOException {
+            java.util.List<byte[]> titles = new ArrayList<byte[]>(lessons.size());
+            long size = HEADER + 8 + 8 + 4 + 4 + (long) progress.size() * (4 + 4 + 4 + 8);
+            for (Lesson l : lessons) {
+                byte[] t = (l.getTitle() == null ? "" : l.getTitle())
+                        .getBytes(StandardCharsets.UTF_8);
+                titles.add(t);
+                size += 4 + 4 + 4 + t.length;
+            }
+            if (size > MAX_SIZE) {
+                throw new IOException("Snapshot too large: " + size + " bytes");
+            }
+
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            buf.position(HEADER);
+            buf.putLong(version).putLong(System.currentTimeMillis());
+            buf.putInt(lessons.size());
+            for (int i = 0; i < lessons.size(); i++) {
+                Lesson l = lessons.get(i);
+                buf.putInt(l.getId()).putInt(l.getInstructorId())
+                   .putInt(titles.get(i).length).put(titles.get(i));
+            }
+            buf.putInt(progress.size());
+            for (ProgressRecord pr : progress) {
+                LocalDateTime t = pr.getLastUpdated();
+                buf.putInt(pr.getId()).putInt(pr.getLessonId())
+                   .putInt(pr.getCompletionPercent())
+                   .putLong(t == null ? -1L
+                           : t.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buf.array(), HEADER, (int) size - HEADER);
+            buf.putInt(0, MAGIC).putInt(4, FORMAT)
+               .putInt(8, (int) size - HEADER).putLong(12, crc.getValue());
+            buf.flip();
+
+            Path path = pathFor(learnerId);
+            Files.createDirectories(path.getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buf.hasRemaining()) {
+                    ch.write(buf);
+                }
+                ch.force(false);
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        // Reconciliation: same lessons (id, title, owner) in the same order
+        // with the same percent and last_updated.
+        public static boolean sameRows(java.util.List<LearnerLessonRow> a,
+                                       java.util.List<LearnerLessonRow> b) {
+            if (a.size() != b.size()) {
+                return false;
+            }
+            for (int i = 0; i < a.size(); i++) {
+                LearnerLessonRow x = a.get(i);
+                LearnerLessonRow y = b.get(i);
+                if (x.getLessonId() != y.getLessonId()
+                        || x.getInstructorId() != y.getInstructorId()
+                        || !Objects.equals(x.getTitle(), y.getTitle())
+                        || !Objects.equals(x.getCompletionPercent(), y.getCompletionPercent())
+                        || !Objects.equals(truncate(x.getLastUpdated()),
+                                           truncate(y.getLastUpdated()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // the file keeps millisecond precision
+        private static LocalDateTime truncate(LocalDateTime t) {
+            return t == null ? null : t.truncatedTo(java.time.temporal.ChronoUnit.MILLIS);
+        }
+    }
+
+    // ============================
+    //   MULTITHREADING TASK
+    // ============================
+
+    // Execution mode for blocking work: -Dcodelingo.threads=platform|virtual.
+    // Virtual threads park cheaply while waiting on MySQL; DBBulkhead still
+    // limits how many of them reach the database at once.
+    public static class Execution {
+
+        public enum Mode {
+            PLATFORM, VIRTUAL
+        }
+
+        private static final Mode MODE = Mode.valueOf(
+                System.getProperty("codelingo.threads", "platform")
+                        .trim().toUpperCase(Locale.ROOT));
+
+        private static final ExecutorService executor = newExecutor(MODE);
+
+        private Execution() {}
+
+        public static Mode getMode() {
+            return MODE;
+        }
+
+        public static ExecutorService executor() {
+            return executor;
+        }
+
+        public static <T> Future<T> submit(Callable<T> task) {
+            return executor.submit(task);
+        }
+
+        // true when this JVM can create virtual threads (Java 21+)
+        public static boolean isVirtualAvailable() {
+            try {
+                virtualThreadFactory("codelingo-probe", false);
+                return true;
+            } catch (IllegalStateException e) {
+                return false;
+            }
+        }
+
+        public static Thread newThread(String name, Runnable task) {
+            return newThread(MODE, name, task);
+        }
+
+        public static Thread newThread(Mode mode, String name, Runnable task) {
+            if (mode == Mode.VIRTUAL) {
+                return virtualThreadFactory(name, false).newThread(task);
+            }
+            return new Thread(task, name);
+        }
+
+        public static ExecutorService newExecutor(Mode mode) {
+            if (mode == Mode.VIRTUAL) {
+                ThreadFactory factory = virtualThreadFactory("codelingo-virtual-", true);
+                try {
+                    return (ExecutorService) Executors.class
+                            .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                            .invoke(null, factory);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Virtual threads need Java 21+", e);
+                }
+            }
+            AtomicInteger counter = new AtomicInteger();
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "codelingo-worker-" + counter.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        // Looked up reflectively so platform mode still builds and runs on
+        // Java 17; only -Dcodelingo.threads=virtual needs Java 21.
+        private static ThreadFactory virtualThreadFactory(String name, boolean numbered) {
+            try {
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = numbered
+                        ? builderType.getMethod("name", String.class, long.class)
+                                .invoke(builder, name, 0L)
+                        : builderType.getMethod("name", String.class).invoke(builder, name);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Virtual threads need Java 21+", e);
+            }
+        }
+    }
+
+    public static class ProgressAutoSaveTask implements Runnable {
+        private final ProgressService progressService;
+        private final int learnerId;
+        private final int lessonId;
+
+        private volatile boolean running = true;
+        private volatile int currentPercent = 0;
+        private volatile Thread thread;
+
+        public ProgressAutoSaveTask(ProgressService progressService,
+                                    int learnerId, int lessonId) {
+            this.progressService = progressService;
+            this.learnerId = learnerId;
+            this.lessonId = lessonId;
+        }
+
+        public void setCurrentPercent(int percent) {
+            this.currentPercent = percent;
+        }
+
+        // platform or virtual thread, depending on Execution mode
+        public void start() {
+            thread = Execution.newThread("ProgressAutoSaveThread", this);
+            thread.start();
+        }
+
+        public void stopTask() {
+            running = false;
+            Thread t = thread;
+            if (t != null) {
+                t.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    progressService.updateProgress(
+                            learnerId, lessonId, currentPercent);
+                    Thread.sleep(5000); // 5 seconds
+                } catch (InterruptedException ex) {
+                    // stopping is normal
+                } catch (Exception e) {
+                    System.err.println("Auto-save error: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Background purge of a user and everything that references it:
+    // progress (every shard), progress history, then the instructor's
+    // lessons (reassigned or archived), then the users row. Work goes in
+    // small keyset batches (-Dcodelingo.purge.batchSize, default 500), each
+    // its own short transaction. Between batches it pauses
+    // (-Dcodelingo.purge.pauseMillis, default 50) plus as long as the last
+    // batch took, so a loaded database – whoever is loading it – slows the
+    // purge down, and it waits longer while callers in this process queue
+    // on the DB bulkhead. State is saved after every batch; an interrupted
+    // purge resumes from its last key.
+    public static class UserPurgeJob implements Runnable {
+        private static final int BATCH_SIZE =
+                Integer.getInteger("codelingo.purge.batchSize", 500);
+        private static final long PAUSE_MILLIS =
+                Long.getLong("codelingo.purge.pauseMillis", 50L);
+        private static final int MAX_BACKOFF_PAUSES = 20;
+        // re-sweeps after the users DELETE hits a foreign key before giving up
+        private static final int MAX_SWEEPS = 3;
+
+        // users with a purge running in this process
+        private static final Set<Integer> running = ConcurrentHashMap.newKeySet();
+
+        private final UserPurgeJobDAO jobDAO = new UserPurgeJobDAO();
+        private final ProgressDAO progressDAO = new ProgressDAO();
+        private final ProgressHistoryDAO historyDAO = new ProgressHistoryDAO();
+        private final LessonDAO lessonDAO = new LessonDAO();
+        private final UserDAO userDAO = new UserDAO();
+
+        private final int userId;
+        private final Integer reassignTo;
+        private final Consumer<PurgeStatus> listener;
+
+        private UserPurgeJob(int userId, Integer reassignTo, Consumer<PurgeStatus> listener) {
+            this.userId = userId;
+            this.reassignTo = reassignTo;
+            this.listener = listener;
+        }
+
+        // Starts (or resumes) a purge. reassignTo null archives the
+        // user's lessons; otherwise it must be another existing instructor,
+        // which the job checks before touching any rows. Returns false if
+        // one is already running here.
+        public static boolean start(int userId, Integer reassignTo,
+                                    Consumer<PurgeStatus> listener) {
+            if (reassignTo != null && reassignTo == userId) {
+                throw new IllegalArgumentException("Cannot reassign lessons to the deleted user");
+            }
+            if (!running.add(userId)) {
+                return false;
+            }
+            Execution.newThread("UserPurge-" + userId,
+                    new UserPurgeJob(userId, reassignTo, listener)).start();
+            return true;
+        }
+
+        // Restarts purges left unfinished (crash, restart, earlier error).
+        public static void resumeUnfinished(Consumer<PurgeStatus> listener)
+                throws SQLException {
+            for (PurgeStatus st : new UserPurgeJobDAO().findUnfinished()) {
+                start(st.getUserId(), st.getReassignTo(), listener);
+            }
+        }
+
+        public static boolean isRunning(int userId) {
+            return running.contains(userId);
+        }
+
+        @Override
+        public void run() {
+            PurgeStatus st = null;
+            try {
+                PurgeStatus existing = jobDAO.find(userId);
+                boolean lessonsPending = existing == null
+                        || existing.getPhase().compareTo(PurgePhase.USER) < 0;
+                if (reassignTo != null && lessonsPending
+                        && userDAO.findRole(reassignTo) != Role.INSTRUCTOR) {
+                    fail(existing, "User " + reassignTo + " is not an instructor");
+                    return;
+                }
+                st = jobDAO.begin(userId, reassignTo);
+                listener.accept(st);
+                while (!st.isDone()) {
+                    long started = System.nanoTime();
+                    st = step(st);
+                    jobDAO.update(st);
+                    listener.accept(st);
+                    if (st.getError() != null) {
+                        return; // gave up; resumes with the next admin dashboard
+                    }
+                    if (!st.isDone()) {
+                        pause(System.nanoTime() - started);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (SQLException e) {
+                fail(st, e.getMessage());
+            } finally {
+                running.remove(userId);
+            }
+        }
+
+        private PurgeStatus step(PurgeStatus st) throws SQLException {
+            java.util.List<Integer> keys;
+            switch (st.getPhase()) {
+                case PROGRESS:
+                    return sweepProgress(st);
+                case HISTORY:
+                    keys = historyDAO.deleteBatchForLearner(
+                            userId, st.getLastKey(), BATCH_SIZE);
+                    if (keys.isEmpty()) {
+                        ProgressHistory.evict(userId);
+                    }
+                    return advance(st, keys, PurgePhase.LESSONS);
+                case LESSONS:
+                    keys = lessonDAO.reassignBatch(
+                            userId, st.getLastKey(), st.getReassignTo(), BATCH_SIZE);
+                    if (keys.isEmpty()) {
+                        LessonCatalog.invalidate();
+                    }
+                    return advance(st, keys, PurgePhase.USER);
+                case USER:
+                    try {
+                        userDAO.delete(userId);
+                    } catch (SQLIntegrityConstraintViolationException e) {
+                        if (st.getSweeps() >= MAX_SWEEPS) {
+                            return new PurgeStatus(userId, st.getReassignTo(), PurgePhase.USER,
+                                    0, 0, st.getRowsAffected(), st.getSweeps(),
+                                    errorText(e.getMessage()));
+                        }
+                        // rows written meanwhile (e.g. a last autosave) – sweep again
+                        return new PurgeStatus(userId, st.getReassignTo(), PurgePhase.PROGRESS,
+                                0, 0, st.getRowsAffected(), st.getSweeps() + 1, null);
+                    }
+                    return new PurgeStatus(userId, st.getReassignTo(), PurgePhase.DONE,
+                            0, 0, st.getRowsAffected() + 1, st.getSweeps(), null);
+                default:
+                    return st;
+            }
+        }
+
+        // Every shard in ring order, not just the learner's current one:
+        // rows left behind by a reshard still reference the user.
+        private PurgeStatus sweepProgress(PurgeStatus st) throws SQLException {
+            java.util.List<ShardRing.Shard> shards = ProgressShards.ring().getShards();
+            if (st.getShard() >= shards.size()) {
+                return new PurgeStatus(userId, st.getReassignTo(), PurgePhase.HISTORY,
+                        0, 0, st.getRowsAffected(), st.getSweeps(), null);
+            }
+            java.util.List<Integer> keys = progressDAO.deleteBatchForLearner(
+                    shards.get(st.getShard()), userId, st.getLastKey(), BATCH_SIZE);
+            if (keys.isEmpty()) {
+                return new PurgeStatus(userId, st.getReassignTo(), PurgePhase.PROGRESS,
+                        st.getShard() + 1, 0, st.getRowsAffected(), st.getSweeps(), null);
+            }
+            return advance(st, keys, PurgePhase.HISTORY);
+        }
+
+        private static PurgeStatus advance(PurgeStatus st, java.util.List<Integer> keys,
+                                           PurgePhase next) {
+            if (keys.isEmpty()) {
+                return new PurgeStatus(st.getUserId(), st.getReassignTo(), next,
+                        0, 0, st.getRowsAffected(), st.getSweeps(), null);
+            }
+            return new PurgeStatus(st.getUserId(), st.getReassignTo(), st.getPhase(),
+                    st.getShard(), keys.get(keys.size() - 1),
+                    st.getRowsAffected() + keys.size(), st.getSweeps(), null);
+        }
+
+        // Rest for the base pause plus as long as the batch took, then
+        // longer while callers in this process wait for a DB permit.
+        // Other clients are only seen through slower batches.
+        private static void pause(long batchNanos) throws InterruptedException {
+            Thread.sleep(PAUSE_MILLIS + TimeUnit.NANOSECONDS.toMillis(batchNanos));
+            for (int i = 0; i < MAX_BACKOFF_PAUSES && DBBulkhead.getWaiting() > 0; i++) {
+                Thread.sleep(PAUSE_MILLIS);
+            }
+        }
+
+        private static String errorText(String message) {
+            message = String.valueOf(message);
+            return message.length() > 500
+                    ? message.substring(0, 500)  // error column size
+                    : message;
+        }
+
+        private void fail(PurgeStatus st, String message) {
+            PurgeStatus failed = st == null
+                    ? new PurgeStatus(userId, reassignTo, PurgePhase.PROGRESS,
+                            0, 0, 0, 0, errorText(message))
+                    : new PurgeStatus(userId, st.getReassignTo(), st.getPhase(),
+                            st.getShard(), st.getLastKey(), st.getRowsAffected(),
+                            st.getSweeps(), errorText(message));
+            try {
+                jobDAO.update(failed);
+            } catch (SQLException ignored) {
+                // state row keeps the last completed batch
+            }
+            listener.accept(failed);
+        }
+    }
+
+    // ============================
+    //          GUI LAYER
+    // ============================
+
+    // ---------- LOGIN FRAME ----------
+    public static class LoginFrame extends JFrame {
+
+        private JTextField emailField;
+        private JPasswordField passwordField;
+        private final AuthService authService = new AuthService();
+
+        public LoginFrame() {
+            setTitle("Online Language Learning Platform - Login");
+            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            setSize(400, 250);
+            setLocationRelativeTo(null);
+
+            initComponents();
+        }
+
+        private void initComponents() {
+            JPanel panel = new JPanel(new GridLayout(4, 2, 5, 5));
+
+            panel.add(new JLabel("Email:"));
+            emailField = new JTextField();
+            panel.add(emailField);
+
+            panel.add(new JLabel("Password:"));
+            passwordField = new JPasswordField();
+            panel.add(passwordField);
+
+            JButton loginBtn = new JButton("Login");
+            JButton exitBtn = new JButton("Exit");
+
+            loginBtn.addActionListener(e -> handleLogin());
+            exitBtn.addActionListener(e -> System.exit(0));
+
+            panel.add(loginBtn);
+            panel.add(exitBtn);
+
+            add(panel, BorderLayout.CENTER);
+        }
+
+        private void handleLogin() {
+            String email = emailField.getText().trim();
+            String pwd = new String(passwordField.getPassword());
+
+            try {
+                User user = authService.login(email, pwd);
+                JOptionPane.showMessageDialog(this, "Welcome, " + user.getName());
+                openDashboard(user);
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(this, ex.getMessage(),
+                        "Login Failed", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+
+        private void openDashboard(User user) {
+            SwingUtilities.invokeLater(() -> {
+                JFrame dashboard;
+                if (user.getRole() == Role.ADMIN) {
+                    dashboard = new AdminDashboardFrame((Admin) user);
+                } else if (user.getRole() == Role.INSTRUCTOR) {
+                    dashboard = new InstructorDashboardFrame((Instructor) user);
+                } else {
+                    dashboard = new LearnerDashboardFrame((Learner) user);
+                }
+                dashboard.setVisible(true);
+            });
+            dispose();
+        }
+    }
+
+    // ---------- ADMIN DASHBOARD ----------
+    public static class AdminDashboardFrame extends JFrame {
+
+        private final Admin admin;
+        private final UserDAO userDAO = new UserDAO();
+        private final LessonService lessonService = new LessonService();
+
+        private static final int MAX_SEARCH_RESULTS = 200;
+
+        private JTable userTable;
+        private JTable lessonTable;
+        private JTextField userSearchField;
+        private JComboBox<Object> roleFilter;
+        private JLabel userStatusLabel;
+
+        private JLabel bulkheadLabel;
+        private JTable slowQueryTable;
+        private JTable statementStatsTable;
+        private JTextArea explainArea;
+        private java.util.List<QueryProfiler.SlowQuery> shownSlowQueries =
+                new ArrayList<QueryProfiler.SlowQuery>();
+
+        public AdminDashboardFrame(Admin admin) {
+            this.admin = admin;
+            setTitle(admin.getDashboardTitle());
+            setSize(800, 600);
+            setLocationRelativeTo(null);
+            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+            initUI();
+            if (UserSearchIndex.isLoaded()) {
+                searchUsers();
+            } else {
+                loadUsers();
+            }
+            loadLessons();
+            resumePurges();
+        }
+
+        private void initUI() {
+            JTabbedPane tabs = new JTabbedPane();
+
+            // User Management – search by email / name prefix
+            JPanel userPanel = new JPanel(new BorderLayout());
+            JPanel searchPanel = new JPanel();
+            searchPanel.add(new JLabel("Search:"));
+            userSearchField = new JTextField(20);
+            userSearchField.getDocument().addDocumentListener(
+                    new javax.swing.event.DocumentListener() {
+                        public void insertUpdate(javax.swing.event.DocumentEvent e) { searchUsers(); }
+                        public void removeUpdate(javax.swing.event.DocumentEvent e) { searchUsers(); }
+                        public void changedUpdate(javax.swing.event.DocumentEvent e) { searchUsers(); }
+                    });
+            searchPanel.add(userSearchField);
+            searchPanel.add(new JLabel("Role:"));
+            roleFilter = new JComboBox<Object>(new Object[]{
+                    "All", Role.ADMIN, Role.INSTRUCTOR, Role.LEARNER});
+            roleFilter.addActionListener(e -> searchUsers());
+            searchPanel.add(roleFilter);
+            userPanel.add(searchPanel, BorderLayout.NORTH);
+
+            userTable = new JTable();
+            userPanel.add(new JScrollPane(userTable), BorderLayout.CENTER);
+
+            JPanel userBottom = new JPanel();
+            userStatusLabel = new JLabel();
+            userBottom.add(userStatusLabel);
+            JButton refreshUsersBtn = new JButton("Refresh Users");
+            refreshUsersBtn.addActionListener(e -> loadUsers());
+            userBottom.add(refreshUsersBtn);
+            JButton deleteUserBtn = new JButton("Delete User");
+            deleteUserBtn.addActionListener(e -> deleteSelectedUser());
+            userBottom.add(deleteUserBtn);
+            userPanel.add(userBottom, BorderLayout.SOUTH);
+            tabs.add("User Management", userPanel);
+
+            // Lesson Management
+            JPanel lessonPanel = new JPanel(new BorderLayout());
+            lessonTable = new JTable();
+            lessonPanel.add(new JScrollPane(lessonTable), BorderLayout.CENTER);
+            JButton refreshLessonsBtn = new JButton("Refresh Lessons");
+            refreshLessonsBtn.addActionListener(e -> loadLessons());
+            lessonPanel.add(refreshLessonsBtn, BorderLayout.SOUTH);
+            tabs.add("Lesson Management", lessonPanel);
+
+            // System Settings (placeholder)
+            JPanel settingsPanel = new JPanel();
+            settingsPanel.add(new JLabel(
+                    "System settings can be configured here (placeholder)."));
+            tabs.add("System Settings", settingsPanel);
+
+            // Activity Monitoring – query profiler and DB bulkhead
+            JPanel activityPanel = new JPanel(new BorderLayout());
+            bulkheadLabel = new JLabel();
+            activityPanel.add(bulkheadLabel, BorderLayout.NORTH);
+
+            JTabbedPane queryTabs = new JTabbedPane();
+            slowQueryTable = new JTable();
+            slowQueryTable.getSelectionModel().addListSelectionListener(e -> {
+                if (!e.getValueIsAdjusting()) {
+                    showExplain();
+                }
+            });
+            explainArea = new JTextArea(8, 40);
+            explainArea.setEditable(false);
+            explainArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+            JSplitPane slowPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                    new JScrollPane(slowQueryTable), new JScrollPane(explainArea));
+            slowPane.setResizeWeight(0.6);
+            queryTabs.add("Worst Offenders", slowPane);
+            statementStatsTable = new JTable();
+            queryTabs.add("All Statements", new JScrollPane(statementStatsTable));
+            activityPanel.add(queryTabs, BorderLayout.CENTER);
+
+            JButton refreshActivityBtn = new JButton("Refresh");
+            refreshActivityBtn.addActionListener(e -> loadQueryProfile());
+            activityPanel.add(refreshActivityBtn, BorderLayout.SOUTH);
+            tabs.add("Activity Monitoring", activityPanel);
+            loadQueryProfile();
+
+            add(tabs);
+        }
+
+        private void loadQueryProfile() {
+            bulkheadLabel.setText(DBBulkhead.summary());
+
+            shownSlowQueries = QueryProfiler.worstOffenders();
+            String[] slowCols = {"Time", "ms", "Exec ms", "Fetch ms", "Rows", "Parameters", "SQL"};
+            DefaultTableModel slowModel = new DefaultTableModel(slowCols, 0);
+            for (QueryProfiler.SlowQuery q : shownSlowQueries) {
+                slowModel.addRow(new Object[]{
+                        q.getAt(), String.format("%.1f", q.getMillis()),
+                        String.format("%.1f", q.getExecuteMillis()),
+                        String.format("%.1f", q.getFetchMillis()),
+                        q.getRows(), q.getParamShape(), q.getSql()
+                });
+            }
+            slowQueryTable.setModel(slowModel);
+            explainArea.setText("");
+
+            String[] statCols = {"SQL", "Count", "Avg ms", "Avg exec ms", "Avg fetch ms",
+                    "Max ms", "Avg rows", "Slow"};
+            DefaultTableModel statModel = new DefaultTableModel(statCols, 0);
+            for (QueryProfiler.StatementStats st : QueryProfiler.statementStats()) {
+                statModel.addRow(new Object[]{
+                        st.getSql(), st.getCount(),
+                        String.format("%.2f", st.getAverageMillis()),
+                        String.format("%.2f", st.getAverageExecuteMillis()),
+                        String.format("%.2f", st.getAverageFetchMillis()),
+                        String.format("%.1f", st.getMaxMillis()),
+                        String.format("%.1f", st.getAverageRows()),
+                        st.getSlowCount()
+                });
+            }
+            statementStatsTable.setModel(statModel);
+        }
+
+        private void showExplain() {
+            int row = slowQueryTable.getSelectedRow();
+            if (row >= 0 && row < shownSlowQueries.size()) {
+                QueryProfiler.SlowQuery q = shownSlowQueries.get(row);
+                explainArea.setText(q.getSql() + "\n\n" + q.getExplain());
+                explainArea.setCaretPosition(0);
+            }
+        }
+
+        // Runs as a background UserPurgeJob; progress shows in the status line.
+        private void deleteSelectedUser() {
+            int row = userTable.getSelectedRow();
+            if (row < 0) {
+                JOptionPane.showMessageDialog(this, "Select a user first.");
+                return;
+            }
+            int userId = (Integer) userTable.getModel().getValueAt(row, 0);
+            Role role = (Role) userTable.getModel().getValueAt(row, 3);
+            if (userId == admin.getId()) {
+                JOptionPane.showMessageDialog(this, "You cannot delete your own account.");
+                return;
+            }
+            if (UserPurgeJob.isRunning(userId)) {
+                JOptionPane.showMessageDialog(this, "User " + userId + " is already being deleted.");
+                return;
+            }
+
+            Integer reassignTo = null;
+            if (role == Role.INSTRUCTOR) {
+                String input = JOptionPane.showInputDialog(this,
+                        "Reassign lessons to instructor ID (leave blank to archive them):");
+                if (input == null) {
+                    return;
+                }
+                if (!input.trim().isEmpty()) {
+                    try {
+                        reassignTo = Integer.parseInt(input.trim());
+                    } catch (NumberFormatException ex) {
+                        JOptionPane.showMessageDialog(this, "Invalid instructor ID.");
+                        return;
+                    }
+                    if (reassignTo == userId) {
+                        JOptionPane.showMessageDialog(this,
+                                "Choose a different instructor for the lessons.");
+                        return;
+                    }
+                }
+            }
+
+            int confirm = JOptionPane.showConfirmDialog(this,
+                    "Delete user " + userId + " and all of their progress?\n"
+                            + "This runs in the background.",
+                    "Delete User", JOptionPane.YES_NO_OPTION);
+            if (confirm == JOptionPane.YES_OPTION) {
+                UserPurgeJob.start(userId, reassignTo, this::showPurgeStatus);
+            }
+        }
+
+        private void resumePurges() {
+            Execution.executor().execute(() -> {
+                try {
+                    UserPurgeJob.resumeUnfinished(this::showPurgeStatus);
+                } catch (SQLException e) {
+                    System.err.println("Purge resume error: " + e.getMessage());
+                }
+            });
+        }
+
+        // called from the purge thread
+        private void showPurgeStatus(PurgeStatus status) {
+            SwingUtilities.invokeLater(() -> {
+                userStatusLabel.setText((status.getError() == null
+                        ? "Deleting " : "Delete stopped: ") + status);
+                if (status.isDone()) {
+                    searchUsers();
+                    userStatusLabel.setText("Deleted user " + status.getUserId()
+                            + " (" + status.getRowsAffected() + " rows)");
+                    loadLessons();
+                }
+            });
+        }
+
+        // (Re)builds the search index off the EDT, then shows the first page.
+        private void loadUsers() {
+            userStatusLabel.setText("Indexing users...");
+            Execution.executor().execute(() -> {
+                try {
+                    UserSearchIndex.rebuild(userDAO);
+                    SwingUtilities.invokeLater(this::searchUsers);
+                } catch (SQLException e) {
+                    SwingUtilities.invokeLater(() -> {
+                        userStatusLabel.setText("");
+                        JOptionPane.showMessageDialog(this,
+                                "Error loading users: " + e.getMessage());
+                    });
+                }
+            });
+        }
+
+        // Only the matching page goes into the table model.
+        private void searchUsers() {
+            if (!UserSearchIndex.isLoaded()) {
+                return;
+            }
+            Object selected = roleFilter.getSelectedItem();
+            Role role = selected instanceof Role ? (Role) selected : null;
+            java.util.List<UserSummary> users = UserSearchIndex.search(
+                    userSearchField.getText(), role, MAX_SEARCH_RESULTS);
+
+            String[] cols = {"ID", "Name", "Email", "Role"};
+            DefaultTableModel model = new DefaultTableModel(cols, 0);
+            for (UserSummary u : users) {
+                model.addRow(new Object[]{
+                        u.getId(), u.getName(), u.getEmail(), u.getRole()
+                });
+            }
+            userTable.setModel(model);
+            userStatusLabel.setText("Showing " + users.size() + " of "
+                    + UserSearchIndex.size() + " users");
+        }
+
+        private void loadLessons() {
+            try {
+                java.util.List<Lesson> lessons = lessonService.getAllLessons();
+                String[] cols = {"ID", "Title", "Instructor ID"};
+                DefaultTableModel model = new DefaultTableModel(cols, 0);
+                for (Lesson l : lessons) {
+                    model.addRow(new Object[]{
+                            l.getId(), l.getTitle(), l.getInstructorId()
+                    });
+                }
+                lessonTable.setModel(model);
+            } catch (SQLException e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error loading lessons: " + e.getMessage());
+            }
+        }
+    }
+
+    // ---------- INSTRUCTOR DASHBOARD ----------
+    public static class InstructorDashboardFrame extends JFrame {
+
+        private final Instructor instructor;
+        private final LessonService lessonService = new LessonService();
+        private final LessonDAO lessonDAO = new LessonDAO();
+        private final ProgressService progressService = new ProgressService();
+
+        private JTextField lessonTitleField;
+        private JTable lessonStatsTable;
+        private JTextArea lessonContentArea;
+
+        // large-lesson editor – one segment in the text area at a time
+        private JTextField editLessonIdField;
+        private JTextArea segmentArea;
+        private JScrollBar segmentScroll;
+        private JLabel segmentLabel;
+        private LessonDocument document;
+        private int currentSegment;
+        private boolean segmentModified;
+        private boolean loadingSegment;
+
+        public InstructorDashboardFrame(Instructor instructor) {
+            this.instructor = instructor;
+            setTitle(instructor.getDashboardTitle());
+            setSize(700, 500);
+            setLocationRelativeTo(null);
+            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+            initUI();
+        }
+
+        private void initUI() {
+            JTabbedPane tabs = new JTabbedPane();
+
+            // Lesson Creation
+            JPanel createLessonPanel = new JPanel(new BorderLayout());
+            JPanel top = new JPanel(new GridLayout(2, 2));
+            top.add(new JLabel("Lesson Title:"));
+            lessonTitleField = new JTextField();
+            top.add(lessonTitleField);
+
+            createLessonPanel.add(top, BorderLayout.NORTH);
+
+            lessonContentArea = new JTextArea(10, 40);
+            createLessonPanel.add(new JScrollPane(lessonContentArea),
+                    BorderLayout.CENTER);
+
+            JButton saveLessonBtn = new JButton("Create Lesson");
+            saveLessonBtn.addActionListener(e -> createLesson());
+            createLessonPanel.add(saveLessonBtn, BorderLayout.SOUTH);
+            tabs.add("Lesson Creation", createLessonPanel);
+
+            // Lesson Editing – large lessons are loaded segment by segment
+            JPanel editPanel = new JPanel(new BorderLayout());
+            JPanel editTop = new JPanel();
+            editTop.add(new JLabel("Lesson ID:"));
+            editLessonIdField = new JTextField(6);
+            editTop.add(editLessonIdField);
+            JButton openBtn = new JButton("Open");
+            openBtn.addActionListener(e -> openLesson());
+            editTop.add(openBtn);
+            segmentLabel = new JLabel("No lesson open");
+            editTop.add(segmentLabel);
+            editPanel.add(editTop, BorderLayout.NORTH);
+
+            segmentArea = new JTextArea(10, 40);
+            segmentArea.setEnabled(false);
+            segmentArea.getDocument().addDocumentListener(
+                    new javax.swing.event.DocumentListener() {
+                        public void insertUpdate(javax.swing.event.DocumentEvent e) { markModified(); }
+                        public void removeUpdate(javax.swing.event.DocumentEvent e) { markModified(); }
+                        public void changedUpdate(javax.swing.event.DocumentEvent e) { markModified(); }
+                    });
+            editPanel.add(new JScrollPane(segmentArea), BorderLayout.CENTER);
+
+            segmentScroll = new JScrollBar(JScrollBar.VERTICAL, 0, 1, 0, 1);
+            segmentScroll.setEnabled(false);
+            segmentScroll.addAdjustmentListener(e -> {
+                if (!e.getValueIsAdjusting()) {
+                    showSegment(e.getValue());
+                }
+            });
+            editPanel.add(segmentScroll, BorderLayout.EAST);
+
+            JPanel editBottom = new JPanel();
+            JButton addSegmentBtn = new JButton("Add Segment");
+            addSegmentBtn.addActionListener(e -> addSegment());
+            editBottom.add(addSegmentBtn);
+            JButton saveChangesBtn = new JButton("Save Changes");
+            saveChangesBtn.addActionListener(e -> saveDocument());
+            editBottom.add(saveChangesBtn);
+            editPanel.add(editBottom, BorderLayout.SOUTH);
+            tabs.add("Lesson Editing", editPanel);
+
+            // Provide Feedback (placeholder)
+            JPanel feedbackPanel = new JPanel();
+            feedbackPanel.add(new JLabel(
+                    "Provide feedback to learners here (placeholder)."));
+            tabs.add("Feedback", feedbackPanel);
+
+            // Track Learner Progress – aggregated across progress shards
+            JPanel progressPanel = new JPanel(new BorderLayout());
+            lessonStatsTable = new JTable();
+            progressPanel.add(new JScrollPane(lessonStatsTable), BorderLayout.CENTER);
+            JButton refreshStatsBtn = new JButton("Refresh Progress Report");
+            refreshStatsBtn.addActionListener(e -> loadLessonStats());
+            progressPanel.add(refreshStatsBtn, BorderLayout.SOUTH);
+            tabs.add("Learner Progress", progressPanel);
+
+            add(tabs);
+        }
+
+        private void createLesson() {
+            String title = lessonTitleField.getText().trim();
+            if (title.isEmpty()) {
+                JOptionPane.showMessageDialog(this,
+                        "Lesson title is required");
+                return;
+            }
+
+            try {
+                lessonService.createLesson(title, lessonContentArea.getDocument(),
+                        instructor.getId());
+                JOptionPane.showMessageDialog(this,
+                        "Lesson created successfully");
+            } catch (Exception e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error creating lesson: " + e.getMessage());
+            }
+        }
+
+        private void loadLessonStats() {
+            try {
+                java.util.List<Lesson> own = new ArrayList<Lesson>();
+                for (Lesson l : lessonService.getAllLessons()) {
+                    if (l.getInstructorId() == instructor.getId()) {
+                        own.add(l);
+                    }
+                }
+                java.util.List<Integer> ids = new ArrayList<Integer>();
+                for (Lesson l : own) {
+                    ids.add(l.getId());
+                }
+                Map<Integer, LessonProgressStats> stats =
+                        progressService.getLessonStats(ids);
+
+                String[] cols = {"Lesson ID", "Title", "Learners", "Avg Completion %", "Completed"};
+                DefaultTableModel model = new DefaultTableModel(cols, 0);
+                for (Lesson l : own) {
+                    LessonProgressStats st = stats.get(l.getId());
+                    model.addRow(new Object[]{
+                            l.getId(), l.getTitle(),
+                            st == null ? 0 : st.getLearners(),
+                            st == null ? "-" : String.format("%.1f", st.getAveragePercent()),
+                            st == null ? 0 : st.getCompleted()
+                    });
+                }
+                lessonStatsTable.setModel(model);
+            } catch (SQLException e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error loading progress report: " + e.getMessage());
+            }
+        }
+
+        private void openLesson() {
+            int lessonId;
+            try {
+                lessonId = Integer.parseInt(editLessonIdField.getText().trim());
+            } catch (NumberFormatException e) {
+                JOptionPane.showMessageDialog(this, "Enter a numeric lesson ID");
+                return;
+            }
+            if (document != null && (segmentModified || document.isDirty())
+                    && JOptionPane.showConfirmDialog(this,
+                        "Discard unsaved changes?", "Open Lesson",
+                        JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+                return;
+            }
+
+            try {
+                Lesson lesson = lessonDAO.findById(lessonId);
+                if (lesson == null || lesson.getInstructorId() != instructor.getId()) {
+                    JOptionPane.showMessageDialog(this,
+                            "You can only edit your own lessons");
+                    return;
+                }
+                document = lessonService.openDocument(lessonId);
+                segmentModified = false;
+                currentSegment = -1;
+                segmentArea.setEnabled(true);
+                segmentScroll.setEnabled(true);
+                segmentScroll.setValues(0, 1, 0, document.getSegmentCount());
+                showSegment(0);
+            } catch (SQLException e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error opening lesson: " + e.getMessage());
+            }
+        }
+
+        private void markModified() {
+            if (!loadingSegment) {
+                segmentModified = true;
+            }
+        }
+
+        // keep edits of the segment being left, then fetch the next one
+        private void showSegment(int seq) {
+            if (document == null || seq == currentSegment) {
+                return;
+            }
+            try {
+                keepCurrentSegment();
+                String text = document.getSegment(seq);
+                loadingSegment = true;
+                try {
+                    segmentArea.setText(text);
+                    segmentArea.setCaretPosition(0);
+                } finally {
+                    loadingSegment = false;
+                }
+                currentSegment = seq;
+                segmentLabel.setText("Segment " + (seq + 1) + " of "
+                        + document.getSegmentCount());
+            } catch (SQLException e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error loading segment: " + e.getMessage());
+            }
+        }
+
+        private void keepCurrentSegment() {
+            if (segmentModified && currentSegment >= 0) {
+                document.setSegment(currentSegment, segmentArea.getText());
+                segmentModified = false;
+            }
+        }
+
+        private void addSegment() {
+            if (document == null) {
+                return;
+            }
+            int seq = document.appendSegment();
+            segmentScroll.setMaximum(document.getSegmentCount());
+            segmentScroll.setValue(seq);
+        }
+
+        private void saveDocument() {
+            if (document == null) {
+                return;
+            }
+            try {
+                keepCurrentSegment();
+                document.save();
+                JOptionPane.showMessageDialog(this, "Lesson saved");
+            } catch (SQLException e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error saving lesson: " + e.getMessage());
+            }
+        }
+    }
+
+    // ---------- LEARNER DASHBOARD ----------
+    public static class LearnerDashboardFrame extends JFrame {
+
+        private static final int PAGE_SIZE = 50;
+
+        private final Learner learner;
+        private final ProgressService progressService = new ProgressService();
+
+        private JTable lessonsTable;
+        private JSlider progressSlider;
+        private JLabel pageLabel;
+        private JButton prevPageBtn;
+        private JButton nextPageBtn;
+
+        private ProgressAutoSaveTask autoSaveTask;
+
+        // start key of every page visited; the last one is the current page
+        private final java.util.List<Integer> pageStarts = new ArrayList<Integer>();
+        // what the table currently shows, for reconciliation
+        private java.util.List<LearnerLessonRow> shownRows = new ArrayList<LearnerLessonRow>();
+        private final AtomicLong snapshotVersion = new AtomicLong();
+
+        public LearnerDashboardFrame(Learner learner) {
+            this.learner = learner;
+            setTitle(learner.getDashboardTitle());
+            setSize(800, 600);
+            setLocationRelativeTo(null);
+            setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+            initUI();
+            pageStarts.add(0);
+            // render the local snapshot at once, then catch up with the DB
+            LocalSnapshot snapshot = LocalSnapshot.read(learner.getId());
+            if (snapshot != null) {
+                snapshotVersion.set(snapshot.getVersion());
+                showRows(snapshot.getRows(), false);
+            }
+            loadPage();
+        }
+
+        private void initUI() {
+            JTabbedPane tabs = new JTabbedPane();
+
+            // My Lessons – every lesson with this learner's progress
+            JPanel lessonPanel = new JPanel(new BorderLayout());
+            lessonsTable = new JTable();
+            lessonPanel.add(new JScrollPane(lessonsTable), BorderLayout.CENTER);
+
+            JPanel pagePanel = new JPanel();
+            prevPageBtn = new JButton("< Previous");
+            prevPageBtn.addActionListener(e -> previousPage());
+            pagePanel.add(prevPageBtn);
+            pageLabel = new JLabel();
+            pagePanel.add(pageLabel);
+            nextPageBtn = new JButton("Next >");
+            nextPageBtn.addActionListener(e -> nextPage());
+            pagePanel.add(nextPageBtn);
+            JButton refreshBtn = new JButton("Refresh");
+            refreshBtn.addActionListener(e -> loadPage());
+            pagePanel.add(refreshBtn);
+            JButton historyBtn = new JButton("Show History");
+            historyBtn.addActionListener(e -> showHistory());
+            pagePanel.add(historyBtn);
+            lessonPanel.add(pagePanel, BorderLayout.NORTH);
+
+            JPanel bottom = new JPanel();
+            bottom.add(new JLabel("Progress:"));
+            progressSlider = new JSlider(0, 100, 0);
+            progressSlider.setMajorTickSpacing(25);
+            progressSlider.setPaintTicks(true);
+            bottom.add(progressSlider);
+
+            JButton startBtn = new JButton("Start Auto-Save");
+            JButton stopBtn = new JButton("Stop Auto-Save");
+
+            startBtn.addActionListener(e -> startAutoSave());
+            stopBtn.addActionListener(e -> stopAutoSave());
+
+            bottom.add(startBtn);
+            bottom.add(stopBtn);
+
+            lessonPanel.add(bottom, BorderLayout.SOUTH);
+            tabs.add("My Lessons", lessonPanel);
+
+            // Interactions (placeholder)
+            JPanel interactions = new JPanel();
+            interactions.add(new JLabel(
+                    "Interact with other learners (messages/forum placeholder)."));
+            tabs.add("Interactions", interactions);
+
+            // Profile Management (simplified)
+            JPanel profilePanel = new JPanel(new GridLayout(3, 2, 5, 5));
+            JTextField nameField = new JTextField(learner.getName());
+            JTextField emailField = new JTextField(learner.getEmail());
+            profilePanel.add(new JLabel("Name:"));
+            profilePanel.add(nameField);
+            profilePanel.add(new JLabel("Email:"));
+            profilePanel.add(emailField);
+            JButton updateProfileBtn = new JButton("Update Profile (Demo)");
+            updateProfileBtn.addActionListener(e ->
+                    JOptionPane.showMessageDialog(this,
+                            "Profile updated (demo only)."));
+            profilePanel.add(updateProfileBtn);
+            tabs.add("Profile", profilePanel);
+
+            add(tabs);
+        }
+
+        // One query per page, off the EDT. The table is only replaced when
+        // the rows differ from what is shown; the first page is snapshotted.
+        private void loadPage() {
+            int afterLessonId = pageStarts.get(pageStarts.size() - 1);
+            int pageNumber = pageStarts.size();
+            Execution.executor().execute(() -> {
+                try {
+                    DashboardPage page = progressService.getDashboardPage(
+                            learner.getId(), afterLessonId, PAGE_SIZE);
+                    SwingUtilities.invokeLater(() -> {
+                        if (pageStarts.size() != pageNumber) {
+                            return; // user moved to another page meanwhile
+                        }
+                        if (LocalSnapshot.sameRows(shownRows, page.getRows())) {
+                            updatePageControls(page.hasMore());
+                        } else {
+                            showRows(page.getRows(), page.hasMore());
+                        }
+                    });
+                    if (pageNumber == 1) {
+                        saveSnapshot(page.getRows());
+                    }
+                } catch (SQLException e) {
+                    SwingUtilities.invokeLater(() ->
+                            JOptionPane.showMessageDialog(this,
+                                    "Error loading dashboard: " + e.getMessage()));
+                }
+            });
+        }
+
+        private void nextPage() {
+            if (!shownRows.isEmpty()) {
+                pageStarts.add(shownRows.get(shownRows.size() - 1).getLessonId());
+                updatePageControls(false);
+                loadPage();
+            }
+        }
+
+        private void previousPage() {
+            if (pageStarts.size() > 1) {
+                pageStarts.remove(pageStarts.size() - 1);
+                updatePageControls(false);
+                loadPage();
+            }
+        }
+
+        private void saveSnapshot(java.util.List<LearnerLessonRow> rows) {
+            try {
+                LocalSnapshot.write(learner.getId(), snapshotVersion.incrementAndGet(), rows);
+            } catch (IOException e) {
+                System.err.println("Snapshot not saved: " + e.getMessage());
+            }
+        }
+
+        private void showRows(java.util.List<LearnerLessonRow> rows, boolean hasMore) {
+            String[] cols = {"ID", "Title", "Instructor ID", "Completion %", "Last Updated"};
+            DefaultTableModel model = new DefaultTableModel(cols, 0);
+            for (LearnerLessonRow r : rows) {
+                model.addRow(new Object[]{
+                        r.getLessonId(),
+                        r.getTitle(),
+                        r.getInstructorId(),
+                        r.getCompletionPercent() == null ? "-" : r.getCompletionPercent(),
+                        r.getLastUpdated()
+                });
+            }
+            lessonsTable.setModel(model);
+            shownRows = rows;
+            updatePageControls(hasMore);
+        }
+
+        private void updatePageControls(boolean hasMore) {
+            prevPageBtn.setEnabled(pageStarts.size() > 1);
+            nextPageBtn.setEnabled(hasMore);
+            pageLabel.setText("Page " + pageStarts.size());
+        }
+
+        private void showHistory() {
+            int row = lessonsTable.getSelectedRow();
+            if (row == -1) {
+                JOptionPane.showMessageDialog(this,
+                        "Select a lesson first");
+                return;
+            }
+            int lessonId = (int) lessonsTable.getValueAt(row, 0);
+            try {
+                java.util.List<ProgressPoint> points =
+                        progressService.getProgressHistory(learner.getId(), lessonId);
+                String[] cols = {"Time", "Completion %", "Resolution"};
+                DefaultTableModel model = new DefaultTableModel(cols, 0);
+                for (ProgressPoint p : points) {
+                    model.addRow(new Object[]{
+                            p.getTime(), p.getPercent(), p.getResolution()
+                    });
+                }
+                JScrollPane pane = new JScrollPane(new JTable(model));
+                pane.setPreferredSize(new Dimension(450, 300));
+                JOptionPane.showMessageDialog(this, pane,
+                        "Progress History - Lesson " + lessonId,
+                        JOptionPane.PLAIN_MESSAGE);
+            } catch (SQLException e) {
+                JOptionPane.showMessageDialog(this,
+                        "Error loading history: " + e.getMessage());
+            }
+        }
+
+        private void startAutoSave() {
+            int row = lessonsTable.getSelectedRow();
+            if (row == -1) {
+                JOptionPane.showMessageDialog(this,
+                        "Select a lesson first");
+                return;
+            }
+            int lessonId = (int) lessonsTable.getValueAt(row, 0);
+
+            if (autoSaveTask != null) {
+                autoSaveTask.stopTask();
+            }
+
+            autoSaveTask = new ProgressAutoSaveTask(
+                    progressService, learner.getId(), lessonId);
+            autoSaveTask.start();
+
+            progressSlider.addChangeListener(e -> {
+                if (autoSaveTask != null) {
+                    autoSaveTask.setCurrentPercent(progressSlider.getValue());
+                    learner.updateProgress(lessonId,
+                            progressSlider.getValue());
+                }
+            });
+
+            JOptionPane.showMessageDialog(this,
+                    "Auto-save started for lesson " + lessonId);
+        }
+
+        private void stopAutoSave() {
+            if (autoSaveTask != null) {
+                autoSaveTask.stopTask();
+                autoSaveTask = null;
+                loadPage();
+                JOptionPane.showMessageDialog(this, "Auto-save stopped");
+            }
+        }
+    }
+
+    // ============================
+    //           MAIN
+    // ============================
+
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            try {
+                UIManager.setLookAndFeel(
+                        UIManager.getSystemLookAndFeelClassName());
+            } catch (Exception ignored) {}
+            new LoginFrame().setVisible(true);
+        });
+    }
+}
+
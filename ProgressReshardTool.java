@@ -0,0 +1,188 @@
+// ProgressReshardTool.java
+//
+// Moves progress rows between shards when the shard list changes.
+//
+// Usage:
+//   java ProgressReshardTool --to=<spec> [--from=<spec>] [--batch=500]
+//                            [--pause=50] [--delete] [--dry-run]
+//
+//   spec      "name=jdbc:url,name=jdbc:url" (same format as
+//             -Dcodelingo.progress.shards); --from defaults to the
+//             current -Dcodelingo.progress.shards setting
+//   --delete  remove rows from the old shard once copied
+//
+// Migration:
+//   1. copy pass (no --delete) while the app still routes with the old ring
+//   2. restart the app with the new -Dcodelingo.progress.shards
+//   3. second pass with --delete – picks up rows written in between;
+//      upserts keep whichever copy has the newer last_updated
+//
+// Each source shard is scanned by primary key in small batches with a
+// pause between them, so autosave writes are never blocked for long.
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProgressReshardTool {
+
+    private static final String UPSERT =
+            "INSERT INTO progress(learner_id, lesson_id, completion_percent, last_updated) " +
+            "VALUES(?,?,?,?) ON DUPLICATE KEY UPDATE " +
+            "completion_percent = IF(VALUES(last_updated) >= last_updated, " +
+            "VALUES(completion_percent), completion_percent), " +
+            "last_updated = GREATEST(last_updated, VALUES(last_updated))";
+
+    private static class Row {
+        final long id;
+        final int learnerId;
+        final int lessonId;
+        final int percent;
+        final Timestamp lastUpdated;
+
+        Row(long id, int learnerId, int lessonId, int percent, Timestamp lastUpdated) {
+            this.id = id;
+            this.learnerId = learnerId;
+            this.lessonId = lessonId;
+            this.percent = percent;
+            this.lastUpdated = lastUpdated;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        OnlineLanguagePlatform.ShardRing from = OnlineLanguagePlatform.ProgressShards.ring();
+        OnlineLanguagePlatform.ShardRing to = null;
+        int batch = 500;
+        long pauseMillis = 50;
+        boolean delete = false;
+        boolean dryRun = false;
+
+        for (String a : args) {
+            if (a.startsWith("--from=")) {
+                from = OnlineLanguagePlatform.ShardRing.parse(a.substring(7));
+            } else if (a.startsWith("--to=")) {
+                to = OnlineLanguagePlatform.ShardRing.parse(a.substring(5));
+            } else if (a.startsWith("--batch=")) {
+                batch = Integer.parseInt(a.substring(8));
+            } else if (a.startsWith("--pause=")) {
+                pauseMillis = Long.parseLong(a.substring(8));
+            } else if ("--delete".equals(a)) {
+                delete = true;
+            } else if ("--dry-run".equals(a)) {
+                dryRun = true;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + a);
+            }
+        }
+        if (to == null) {
+            System.err.println("--to=<shard spec> is required");
+            System.exit(1);
+        }
+
+        long totalMoved = 0;
+        for (OnlineLanguagePlatform.ShardRing.Shard source : from.getShards()) {
+            totalMoved += migrate(source, to, batch, pauseMillis, delete, dryRun);
+        }
+        System.out.println((dryRun ? "Would move " : "Moved ") + totalMoved + " rows.");
+    }
+
+    private static long migrate(OnlineLanguagePlatform.ShardRing.Shard source,
+                                OnlineLanguagePlatform.ShardRing to,
+                                int batch, long pauseMillis,
+                                boolean delete, boolean dryRun)
+            throws SQLException, InterruptedException {
+        long lastId = 0;
+        long scanned = 0;
+        long moved = 0;
+
+        while (true) {
+            List<Row> rows = readBatch(source, lastId, batch);
+            if (rows.isEmpty()) {
+                break;
+            }
+            lastId = rows.get(rows.size() - 1).id;
+            scanned += rows.size();
+
+            // rows whose owner under the new ring is another database
+            Map<OnlineLanguagePlatform.ShardRing.Shard, List<Row>> byTarget =
+                    new LinkedHashMap<OnlineLanguagePlatform.ShardRing.Shard, List<Row>>();
+            for (Row r : rows) {
+                OnlineLanguagePlatform.ShardRing.Shard target = to.shardFor(r.learnerId);
+                if (!target.getUrl().equals(source.getUrl())) {
+                    byTarget.computeIfAbsent(target, k -> new ArrayList<Row>()).add(r);
+                }
+            }
+
+            for (Map.Entry<OnlineLanguagePlatform.ShardRing.Shard, List<Row>> e : byTarget.entrySet()) {
+                if (!dryRun) {
+                    copy(e.getKey(), e.getValue());
+                    if (delete) {
+                        deleteRows(source, e.getValue());
+                    }
+                }
+                moved += e.getValue().size();
+            }
+
+            System.out.printf("%s: scanned %d, %s %d (last id %d)%n",
+                    source, scanned, dryRun ? "to move" : "moved", moved, lastId);
+            Thread.sleep(pauseMillis);
+        }
+        return moved;
+    }
+
+    private static List<Row> readBatch(OnlineLanguagePlatform.ShardRing.Shard shard,
+                                       long afterId, int batch) throws SQLException {
+        String sql = "SELECT id, learner_id, lesson_id, completion_percent, last_updated " +
+                "FROM progress WHERE id > ? ORDER BY id LIMIT ?";
+        List<Row> rows = new ArrayList<Row>();
+        try (Connection conn = OnlineLanguagePlatform.ProgressShards.connection(shard);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            ps.setLong(1, afterId);
+            ps.setInt(2, batch);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new Row(rs.getLong("id"), rs.getInt("learner_id"),
+                            rs.getInt("lesson_id"), rs.getInt("completion_percent"),
+                            rs.getTimestamp("last_updated")));
+                }
+            }
+        }
+        return rows;
+    }
+
+    private static void copy(OnlineLanguagePlatform.ShardRing.Shard target, List<Row> rows)
+            throws SQLException {
+        try (Connection conn = OnlineLanguagePlatform.ProgressShards.connection(target);
+             PreparedStatement ps = conn.prepareStatement(UPSERT)) {
+
+            for (Row r : rows) {
+                ps.setInt(1, r.learnerId);
+                ps.setInt(2, r.lessonId);
+                ps.setInt(3, r.percent);
+                ps.setTimestamp(4, r.lastUpdated);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void deleteRows(OnlineLanguagePlatform.ShardRing.Shard source, List<Row> rows)
+            throws SQLException {
+        StringBuilder in = new StringBuilder();
+        for (int i = 0; i < rows.size(); i++) {
+            in.append(i == 0 ? "?" : ",?");
+        }
+        String sql = "DELETE FROM progress WHERE id IN (" + in + ")";
+        try (Connection conn = OnlineLanguagePlatform.ProgressShards.connection(source);
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+
+            for (int i = 0; i < rows.size(); i++) {
+                ps.setLong(i + 1, rows.get(i).id);
+            }
+            ps.executeUpdate();
+        }
+    }
+}
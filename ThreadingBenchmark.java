@@ -0,0 +1,170 @@
+// ThreadingBenchmark.java
+//
+// Platform threads vs virtual threads for blocking DB work behind the
+// DB bulkhead, at 1k-10k concurrent clients.
+//
+// Usage:
+//   java -Dcodelingo.db.poolSize=10 ThreadingBenchmark [--db] [requestsPerClient] [latencyMillis]
+//
+// Without --db every request holds a bulkhead permit and sleeps for
+// latencyMillis (a simulated query), so no MySQL is needed.
+// With --db every request runs "SELECT 1" through DBConnectionManager.
+// On Java 17-20 only the platform rows are run.
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ThreadingBenchmark {
+
+    private static final int[] CLIENT_COUNTS = {1000, 2500, 5000, 10000};
+
+    public static void main(String[] args) throws Exception {
+        boolean useDb = false;
+        List<String> rest = new ArrayList<String>();
+        for (String a : args) {
+            if ("--db".equals(a)) {
+                useDb = true;
+            } else {
+                rest.add(a);
+            }
+        }
+        int requestsPerClient = rest.size() > 0 ? Integer.parseInt(rest.get(0)) : 5;
+        int latencyMillis = rest.size() > 1 ? Integer.parseInt(rest.get(1)) : 2;
+
+        // queueing is the point of the benchmark – don't let it time out
+        if (System.getProperty("codelingo.db.acquireTimeoutMillis") == null) {
+            System.setProperty("codelingo.db.acquireTimeoutMillis", "600000");
+        }
+
+        List<OnlineLanguagePlatform.Execution.Mode> modes =
+                new ArrayList<OnlineLanguagePlatform.Execution.Mode>();
+        modes.add(OnlineLanguagePlatform.Execution.Mode.PLATFORM);
+        if (OnlineLanguagePlatform.Execution.isVirtualAvailable()) {
+            modes.add(OnlineLanguagePlatform.Execution.Mode.VIRTUAL);
+        } else {
+            System.out.println("virtual threads not available on Java "
+                    + System.getProperty("java.specification.version")
+                    + " (need 21+) - skipping VIRTUAL rows");
+        }
+
+        System.out.printf(Locale.ROOT,
+                "bulkhead permits=%d, requests/client=%d, %s%n",
+                OnlineLanguagePlatform.DBBulkhead.getPermits(), requestsPerClient,
+                useDb ? "real DB (SELECT 1)" : "simulated query " + latencyMillis + " ms");
+        System.out.printf(Locale.ROOT, "%-9s %7s %10s %9s %9s %9s %8s %9s %10s%n",
+                "mode", "clients", "req/s", "p50 ms", "p99 ms", "start ms",
+                "errors", "max queue", "heap MB");
+
+        // warm-up so JIT and class loading don't skew the first row
+        for (OnlineLanguagePlatform.Execution.Mode mode : modes) {
+            run(mode, 200, 2, latencyMillis, useDb, false);
+        }
+
+        for (int clients : CLIENT_COUNTS) {
+            for (OnlineLanguagePlatform.Execution.Mode mode : modes) {
+                run(mode, clients, requestsPerClient, latencyMillis, useDb, true);
+            }
+        }
+    }
+
+    private static void run(OnlineLanguagePlatform.Execution.Mode mode, int clients,
+                            int requestsPerClient, int latencyMillis, boolean useDb,
+                            boolean report) throws InterruptedException {
+        OnlineLanguagePlatform.DBBulkhead.resetStats();
+        System.gc();
+
+        long[] latencies = new long[clients * requestsPerClient];
+        AtomicInteger recorded = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+
+        Runnable client = () -> {
+            try {
+                startGate.await();
+                for (int r = 0; r < requestsPerClient; r++) {
+                    long t0 = System.nanoTime();
+                    try {
+                        request(latencyMillis, useDb);
+                        latencies[recorded.getAndIncrement()] = System.nanoTime() - t0;
+                    } catch (Exception e) {
+                        errors.increment();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        };
+
+        // thread creation is part of what differs between the modes
+        long spawnStart = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            try {
+                OnlineLanguagePlatform.Execution
+                        .newThread(mode, "bench-client-" + i, client).start();
+            } catch (OutOfMemoryError e) {
+                // "unable to create native thread" – count the client as failed
+                errors.add(requestsPerClient);
+                done.countDown();
+            }
+        }
+        long spawnNanos = System.nanoTime() - spawnStart;
+        Runtime rt = Runtime.getRuntime();
+        long heapUsed = rt.totalMemory() - rt.freeMemory();
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        if (!report) {
+            return;
+        }
+        int n = recorded.get();
+        long[] sorted = Arrays.copyOf(latencies, n);
+        Arrays.sort(sorted);
+        System.out.printf(Locale.ROOT, "%-9s %7d %10.0f %9.1f %9.1f %9.1f %8d %9d %10.1f%n",
+                mode, clients,
+                n / (elapsed / 1e9),
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.99),
+                spawnNanos / 1e6,
+                errors.sum(),
+                OnlineLanguagePlatform.DBBulkhead.getMaxWaiting(),
+                heapUsed / (1024.0 * 1024.0));
+    }
+
+    private static void request(int latencyMillis, boolean useDb)
+            throws SQLException, InterruptedException {
+        if (useDb) {
+            try (Connection conn = OnlineLanguagePlatform.DBConnectionManager.getConnection();
+                 Statement st = conn.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT 1")) {
+                rs.next();
+            }
+            return;
+        }
+        OnlineLanguagePlatform.DBBulkhead.acquire();
+        try {
+            Thread.sleep(latencyMillis);
+        } finally {
+            OnlineLanguagePlatform.DBBulkhead.release();
+        }
+    }
+
+    private static double percentileMillis(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int i = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, i)] / 1e6;
+    }
+}
@@ -17,6 +17,26 @@ CREATE TABLE lessons (
     FOREIGN KEY (instructor_id) REFERENCES users(id)
 );
 
+-- Single row bumped by every lesson write that changes the catalog, so
+-- the servlet container notices lessons created from the Swing app.
+CREATE TABLE catalog_version (
+    id INT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+INSERT INTO catalog_version (id, version) VALUES (1, 1);
+
+-- Large lesson bodies, stored and edited in segments.
+CREATE TABLE lesson_segments (
+    lesson_id INT NOT NULL,
+    seq INT NOT NULL,
+    content MEDIUMTEXT NOT NULL,
+    PRIMARY KEY (lesson_id, seq),
+    FOREIGN KEY (lesson_id) REFERENCES lessons(id)
+);
+
+-- progress can be sharded by learner_id (-Dcodelingo.progress.shards).
+-- Each shard database needs this schema; users and lessons must be
+-- replicated there for the foreign keys (or the FKs dropped on shards).
 CREATE TABLE progress (
     id INT AUTO_INCREMENT PRIMARY KEY,
     learner_id INT,
@@ -29,6 +49,36 @@ CREATE TABLE progress (
     FOREIGN KEY (lesson_id) REFERENCES lessons(id)
 );
 
+-- Compact learning-curve history: one row per (learner, lesson, tier).
+-- samples holds delta-encoded varints (seconds, percent change);
+-- RAW keeps the last hour, MINUTE the last 30 days, DAY everything older.
+CREATE TABLE progress_history (
+    learner_id INT NOT NULL,
+    lesson_id INT NOT NULL,
+    resolution ENUM('RAW', 'MINUTE', 'DAY') NOT NULL,
+    base_time BIGINT NOT NULL,
+    sample_count INT NOT NULL,
+    samples BLOB NOT NULL,
+    PRIMARY KEY (learner_id, lesson_id, resolution),
+    FOREIGN KEY (learner_id) REFERENCES users(id),
+    FOREIGN KEY (lesson_id) REFERENCES lessons(id)
+);
+
+-- Resumable state of background user deletes (UserPurgeJob).
+-- No foreign key: the row outlives the deleted user.
+CREATE TABLE user_purge_jobs (
+    user_id INT PRIMARY KEY,
+    reassign_to INT NULL,
+    phase ENUM('PROGRESS', 'HISTORY', 'LESSONS', 'USER', 'DONE') NOT NULL,
+    shard INT NOT NULL DEFAULT 0,
+    last_key BIGINT NOT NULL DEFAULT 0,
+    rows_affected BIGINT NOT NULL DEFAULT 0,
+    sweeps INT NOT NULL DEFAULT 0,
+    error VARCHAR(500),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+        ON UPDATE CURRENT_TIMESTAMP
+);
+
 INSERT INTO users (name, email, password, role)
 VALUES ('Admin User', 'admin@example.com', 'admin123', 'ADMIN');
 